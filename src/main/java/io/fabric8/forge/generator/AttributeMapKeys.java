@@ -32,6 +32,8 @@ public class AttributeMapKeys {
     public static final String GIT_REPOSITORY_PATTERN = "gitRepositoryPattern";
     public static final String GIT_REPO_NAMES = "gitRepositories";
     public static final String GIT_CLONED_REPOS = "gitClonedRepos";
+    public static final String GIT_CLONE_STATUSES = "gitCloneStatuses";
+    public static final String GIT_PUSH_STATUSES = "gitPushStatuses";
 
     public static final String CATALOG_GIT_REPOSITORY = "LAUNCHPAD_BACKEND_CATALOG_GIT_REPOSITORY";
     public static final String CATALOG_GIT_REF = "LAUNCHPAD_BACKEND_CATALOG_GIT_REF";
@@ -30,6 +30,27 @@ public class EnvironmentVariables {
     public static final String TESTING_OAUTH_HEADER = "TESTING_OAUTH_HEADER";
     public static final String OPENSHIFT_API_URL = "OPENSHIFT_API_URL";
 
+    public static final String CACHE_METRICS_PORT = "CACHE_METRICS_PORT";
+    public static final String CACHE_CLUSTER_MODE = "CACHE_CLUSTER_MODE";
+    public static final String CACHE_CLUSTER_NAME = "CACHE_CLUSTER_NAME";
+    public static final String CACHE_JGROUPS_CONFIG = "CACHE_JGROUPS_CONFIG";
+    public static final String CACHE_STORE_DIR = "CACHE_STORE_DIR";
+    public static final String CACHE_STORE_MAX_ENTRIES = "CACHE_STORE_MAX_ENTRIES";
+    public static final String CACHE_STORE_LIFESPAN_SECONDS = "CACHE_STORE_LIFESPAN_SECONDS";
+    public static final String CACHE_REFRESH_AFTER_SECONDS = "CACHE_REFRESH_AFTER_SECONDS";
+    public static final String CACHE_REFRESH_LIFESPAN_SECONDS = "CACHE_REFRESH_LIFESPAN_SECONDS";
+    public static final String CACHE_REFRESH_THREADS = "CACHE_REFRESH_THREADS";
+    public static final String CACHE_REFRESH_QUEUE_SIZE = "CACHE_REFRESH_QUEUE_SIZE";
+    public static final String CACHE_CONFIG_FILE = "CACHE_CONFIG_FILE";
+    public static final String GITHUB_HTTP_CACHE_DIR = "GITHUB_HTTP_CACHE_DIR";
+    public static final String GITHUB_HTTP_CACHE_SIZE_MB = "GITHUB_HTTP_CACHE_SIZE_MB";
+    public static final String GITHUB_WEBHOOK_RECONCILE = "GITHUB_WEBHOOK_RECONCILE";
+    public static final String GIT_CLONE_SINGLE_BRANCH = "GIT_CLONE_SINGLE_BRANCH";
+    public static final String GIT_MIRROR_CACHE_DIR = "GIT_MIRROR_CACHE_DIR";
+    public static final String GIT_MIRROR_CACHE_SIZE_MB = "GIT_MIRROR_CACHE_SIZE_MB";
+    public static final String GIT_MIRROR_REFRESH_SECONDS = "GIT_MIRROR_REFRESH_SECONDS";
+    public static final String GIT_MIRROR_MIN_CLONES = "GIT_MIRROR_MIN_CLONES";
+
     public static String getWitApiURL() {
         String witAPI = System.getenv(WIT_URL);
         if (Strings.isNullOrBlank(witAPI)) {
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import io.fabric8.utils.Strings;
+
+/**
+ * How the caches are shared between the generator pods
+ */
+public enum CacheClusterMode {
+    /**
+     * Each pod has its own caches (the default)
+     */
+    LOCAL,
+
+    /**
+     * Writes on one pod invalidate the entry on the other pods so they reload it on next use
+     */
+    INVALIDATION,
+
+    /**
+     * Entries loaded on one pod are replicated to the other pods so they start warm
+     */
+    REPLICATED;
+
+    public boolean isClustered() {
+        return this != LOCAL;
+    }
+
+    /**
+     * Parses the given text ignoring case, returning {@link #LOCAL} if its blank
+     */
+    public static CacheClusterMode fromText(String text) {
+        if (Strings.isNullOrBlank(text)) {
+            return LOCAL;
+        }
+        String name = text.trim().toUpperCase();
+        for (CacheClusterMode mode : values()) {
+            if (mode.name().equals(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cache cluster mode: " + text + ". Expected one of LOCAL, INVALIDATION or REPLICATED");
+    }
+}
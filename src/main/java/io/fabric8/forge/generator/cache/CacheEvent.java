@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import io.fabric8.forge.generator.git.GitRepositoryDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An event published on the {@link CacheEventBus} when we change something which may be cached
+ */
+public class CacheEvent {
+    public enum Kind {
+        REPOSITORY_CREATED,
+        BUILD_CONFIGS_CREATED,
+        SECRET_STORED
+    }
+
+    private final Kind kind;
+    private String userCacheKey;
+    private String gitProvider;
+    private String gitUserCacheKey;
+    private String gitOrganisation;
+    private GitRepositoryDTO repository;
+    private List<String> repositoryNames = Collections.emptyList();
+    private String namespace;
+    private String secretName;
+
+    public CacheEvent(Kind kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * Creates an event for a git repository we have created
+     *
+     * @param gitProvider the git provider such as {@link io.fabric8.forge.generator.git.RepositoryAvailability#GITHUB}
+     * @param gitUserCacheKey the cache key of the git account
+     * @param gitOrganisation the organisation, or user name for personal repositories, which owns the repository
+     * @param repository the new repository
+     */
+    public static CacheEvent repositoryCreated(String gitProvider, String gitUserCacheKey, String gitOrganisation, GitRepositoryDTO repository) {
+        CacheEvent answer = new CacheEvent(Kind.REPOSITORY_CREATED);
+        answer.gitProvider = gitProvider;
+        answer.gitUserCacheKey = gitUserCacheKey;
+        answer.gitOrganisation = gitOrganisation;
+        answer.repository = repository;
+        answer.repositoryNames = Collections.singletonList(repository.getId());
+        return answer;
+    }
+
+    /**
+     * Creates an event for the BuildConfigs we have created in a namespace for some git repositories
+     */
+    public static CacheEvent buildConfigsCreated(String userCacheKey, String namespace, String gitUserCacheKey,
+                                                 String gitOrganisation, List<String> repositoryNames) {
+        CacheEvent answer = new CacheEvent(Kind.BUILD_CONFIGS_CREATED);
+        answer.userCacheKey = userCacheKey;
+        answer.namespace = namespace;
+        answer.gitUserCacheKey = gitUserCacheKey;
+        answer.gitOrganisation = gitOrganisation;
+        answer.repositoryNames = new ArrayList<>(repositoryNames);
+        return answer;
+    }
+
+    /**
+     * Creates an event for a git account secret we have stored for the user
+     */
+    public static CacheEvent secretStored(String userCacheKey, String secretName) {
+        CacheEvent answer = new CacheEvent(Kind.SECRET_STORED);
+        answer.userCacheKey = userCacheKey;
+        answer.secretName = secretName;
+        return answer;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheEvent{" +
+                "kind=" + kind +
+                ", gitProvider='" + gitProvider + '\'' +
+                ", gitOrganisation='" + gitOrganisation + '\'' +
+                ", repositoryNames=" + repositoryNames +
+                ", namespace='" + namespace + '\'' +
+                ", secretName='" + secretName + '\'' +
+                '}';
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the kubernetes user cache key
+     */
+    public String getUserCacheKey() {
+        return userCacheKey;
+    }
+
+    public String getGitProvider() {
+        return gitProvider;
+    }
+
+    public String getGitUserCacheKey() {
+        return gitUserCacheKey;
+    }
+
+    public String getGitOrganisation() {
+        return gitOrganisation;
+    }
+
+    public GitRepositoryDTO getRepository() {
+        return repository;
+    }
+
+    public List<String> getRepositoryNames() {
+        return repositoryNames;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getSecretName() {
+        return secretName;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A simple in process bus so that the wizard steps can tell the caches what they have changed.
+ * <p>
+ * Listeners are invoked synchronously on the publishing thread so that the caches are updated before the
+ * next step is shown.
+ */
+public class CacheEventBus {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CacheEventBus.class);
+
+    private final List<CacheEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(CacheEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CacheEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(CacheEvent event) {
+        LOG.debug("Publishing " + event);
+        for (CacheEventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (Exception e) {
+                LOG.warn("Failed to process " + event + " in " + listener + ". " + e, e);
+            }
+        }
+    }
+}
@@ -16,9 +16,14 @@
  */
 package io.fabric8.forge.generator.cache;
 
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.utils.Strings;
 import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.manager.DefaultCacheManager;
 import org.infinispan.manager.EmbeddedCacheManager;
@@ -28,6 +33,13 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -36,31 +48,67 @@ import java.util.concurrent.TimeUnit;
 public class CacheFacade {
     private static final transient Logger LOG = LoggerFactory.getLogger(CacheFacade.class);
 
-    private EmbeddedCacheManager manager = new DefaultCacheManager();
+    private static final String METRICS_OBJECT_NAME_PREFIX = "io.fabric8.forge.generator:type=CacheMetrics,name=";
+
+    private final CacheOptions options;
+    private final EmbeddedCacheManager manager;
+    private final List<String> cacheNames = new ArrayList<>();
+    private final Map<String, CacheSettings> cacheSettings = new LinkedHashMap<>();
+    private final CacheEventBus eventBus = new CacheEventBus();
+    private final List<ObjectName> registeredMBeans = new ArrayList<>();
+    private CacheMetricsEndpoint metricsEndpoint;
 
     @Inject
     @Singleton
     public CacheFacade() {
-        manager.defineConfiguration(CacheNames.USER_NAMESPACES, createCacheConfiguration(1000, 2 * 60));
-        manager.defineConfiguration(CacheNames.USER_SPACES, createCacheConfiguration(1000, 2 * 60));
-        manager.defineConfiguration(CacheNames.USER_PROFILE_SETTINGS, createCacheConfiguration(1000, 60 * 5));
+        this(CacheOptions.fromEnvironment());
+    }
+
+    public CacheFacade(CacheOptions options) {
+        this.options = options;
+        manager = new DefaultCacheManager(createGlobalConfiguration(options).build());
+        Caches.configureRefreshExecutor(options.getRefreshThreads(), options.getRefreshQueueSize());
 
-        manager.defineConfiguration(CacheNames.GIT_PROVIDERS, createCacheConfiguration(1000, 2 * 60));
+        // lets only replicate the DTO caches; the account caches contain user tokens and the git providers are not
+        // serializable so they are just invalidated across the cluster
+        //
+        // the namespaces, spaces and accounts are invalidated by the CacheInvalidator when we change them so they
+        // can be cached for longer
+        defineCache(new CacheSettings(CacheNames.USER_NAMESPACES, 1000, 10 * 60, true));
+        defineCache(new CacheSettings(CacheNames.USER_SPACES, 1000, 10 * 60, true));
+        defineCache(new CacheSettings(CacheNames.USER_PROFILE_SETTINGS, 1000, 60 * 5, false));
 
-        manager.defineConfiguration(CacheNames.GITHUB_ACCOUNT_FROM_SECRET, createCacheConfiguration(1000, 2 * 60));
-        manager.defineConfiguration(CacheNames.GITHUB_ORGANISATIONS, createCacheConfiguration(1000, 60 * 5));
-        manager.defineConfiguration(CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION, createCacheConfiguration(1000, 60 * 5));
+        defineCache(new CacheSettings(CacheNames.GIT_PROVIDERS, 1000, 2 * 60, false));
 
-        manager.defineConfiguration(CacheNames.GOGS_ACCOUNT_FROM_SECRET, createCacheConfiguration(1000, 2 * 60));
-        manager.defineConfiguration(CacheNames.GOGS_ORGANISATIONS, createCacheConfiguration(1000, 60 * 5));
+        defineCache(new CacheSettings(CacheNames.GITHUB_ACCOUNT_FROM_SECRET, 1000, 10 * 60, false));
+        defineCache(createRefreshAheadSettings(CacheNames.GITHUB_ORGANISATIONS, 1000, true));
+        // the repository listings are packed so we can keep them as objects bounded by count; binary storage would
+        // deserialize the listing on every read
+        defineCache(createRefreshAheadSettings(CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION, 1000, true));
+        defineCache(new CacheSettings(CacheNames.GITHUB_NOT_FOUND, 10000, 60, true));
 
-        LOG.info("starting caches");
+        defineCache(new CacheSettings(CacheNames.GOGS_ACCOUNT_FROM_SECRET, 1000, 10 * 60, false));
+        defineCache(createRefreshAheadSettings(CacheNames.GOGS_ORGANISATIONS, 1000, false));
+        defineCache(new CacheSettings(CacheNames.REPOSITORY_AVAILABILITY, 10000, 30, true));
+
+        LOG.info("starting caches with " + options);
         manager.start();
+
+        for (String name : cacheNames) {
+            Caches.metrics(name).bind(getCache(name));
+        }
+        registerMetricsMBeans();
+        startMetricsEndpoint();
+        eventBus.addListener(new CacheInvalidator(this));
     }
 
 
     @PreDestroy
     public void destroy() {
+        if (metricsEndpoint != null) {
+            metricsEndpoint.stop();
+        }
+        unregisterMetricsMBeans();
         LOG.info("stopping caches");
         manager.stop();
     }
@@ -73,11 +121,193 @@ public class CacheFacade {
         return manager.getCache(name, true);
     }
 
-    protected Configuration createCacheConfiguration(int cacheCount, int lifespanSeconds) {
-        return new ConfigurationBuilder()
-                .memory().evictionType(EvictionType.COUNT).size(cacheCount).
-                        eviction().expiration().lifespan(lifespanSeconds, TimeUnit.SECONDS)
-                .build();
+    /**
+     * Returns the bus used to tell the caches about changes we've made
+     */
+    public CacheEventBus getEventBus() {
+        return eventBus;
+    }
+
+    public void publish(CacheEvent event) {
+        eventBus.publish(event);
+    }
+
+    public CacheOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Returns the effective settings of the configured caches
+     */
+    public List<CacheSettings> getCacheSettings() {
+        return new ArrayList<>(cacheSettings.values());
+    }
+
+    /**
+     * Returns the metrics of the configured caches
+     */
+    public List<CacheMetrics> getMetrics() {
+        List<CacheMetrics> answer = new ArrayList<>();
+        for (String name : cacheNames) {
+            answer.add(Caches.metrics(name));
+        }
+        return answer;
+    }
+
+    protected void defineCache(CacheSettings defaults) {
+        CacheSettings settings = options.applyOverrides(defaults);
+        String name = settings.getName();
+        if (settings.getMaxBytes() > 0 && !settings.isReplicable()) {
+            LOG.warn("Ignoring the max bytes of cache " + name + " as its values are not serializable");
+            settings.setMaxBytes(0);
+        }
+        LOG.info("Cache " + name + " " + describeSettings(settings));
+        manager.defineConfiguration(name, createCacheConfiguration(settings));
+        if (settings.getRefreshAfterSeconds() > 0) {
+            Caches.refreshAfter(name, settings.getRefreshAfterSeconds(), TimeUnit.SECONDS);
+        }
+        cacheNames.add(name);
+        cacheSettings.put(name, settings);
+    }
+
+    protected String describeSettings(CacheSettings settings) {
+        StringBuilder builder = new StringBuilder();
+        if (settings.getMaxBytes() > 0) {
+            builder.append("maxBytes: ").append(settings.getMaxBytes());
+        } else {
+            builder.append("maxEntries: ").append(settings.getMaxEntries());
+        }
+        builder.append(" lifespan: ").append(getLifespanSeconds(settings)).append("s");
+        if (settings.getRefreshAfterSeconds() > 0) {
+            builder.append(" refreshAfter: ").append(settings.getRefreshAfterSeconds()).append("s");
+        }
+        builder.append(" mode: ").append(getCacheMode(settings.isReplicable()));
+        if (isStored(settings)) {
+            builder.append(" store: ").append(options.getStoreDirectory());
+        }
+        return builder.toString();
+    }
+
+    protected GlobalConfigurationBuilder createGlobalConfiguration(CacheOptions options) {
+        GlobalConfigurationBuilder builder;
+        if (options.getClusterMode().isClustered()) {
+            builder = GlobalConfigurationBuilder.defaultClusteredBuilder();
+            builder.transport().clusterName(options.getClusterName());
+            if (Strings.isNotBlank(options.getNodeName())) {
+                builder.transport().nodeName(options.getNodeName());
+            }
+            if (Strings.isNotBlank(options.getJgroupsConfig())) {
+                builder.transport().addProperty("configurationFile", options.getJgroupsConfig());
+            }
+        } else {
+            builder = new GlobalConfigurationBuilder();
+        }
+        builder.globalJmxStatistics().enable().allowDuplicateDomains(true).jmxDomain("io.fabric8.forge.generator.cache");
+        return builder;
+    }
+
+    /**
+     * Creates the configuration of a cache.
+     * <p>
+     * If the cache has a refresh period then entries older than it are returned straight away and reloaded in the
+     * background; only entries past the lifespan block the caller.
+     * <p>
+     * If the cache is persistent and a store directory is configured then the cache is also stored in a single
+     * file so that it survives restarts. Persisted entries are kept for the store lifespan and are lazily loaded
+     * from the file when first used, then refreshed in the same way.
+     */
+    protected Configuration createCacheConfiguration(CacheSettings settings) {
+        ConfigurationBuilder builder = new ConfigurationBuilder();
+        builder.clustering().cacheMode(getCacheMode(settings.isReplicable()))
+                .jmxStatistics().enable();
+        if (settings.getMaxBytes() > 0) {
+            builder.memory().storageType(StorageType.BINARY).evictionType(EvictionType.MEMORY).size(settings.getMaxBytes());
+        } else {
+            builder.memory().evictionType(EvictionType.COUNT).size(settings.getMaxEntries());
+        }
+        builder.expiration().lifespan(getLifespanSeconds(settings), TimeUnit.SECONDS);
+        if (isStored(settings)) {
+            builder.persistence()
+                    .passivation(false)
+                    .addSingleFileStore()
+                    .location(options.getStoreDirectory())
+                    .maxEntries(options.getStoreMaxEntries())
+                    .preload(false)
+                    .shared(false)
+                    .fetchPersistentState(false)
+                    .purgeOnStartup(false);
+        }
+        return builder.build();
+    }
+
+    protected CacheSettings createRefreshAheadSettings(String name, int maxEntries, boolean persistent) {
+        CacheSettings answer = new CacheSettings(name, maxEntries, options.getRefreshLifespanSeconds(), true);
+        answer.setRefreshAfterSeconds(options.getRefreshAfterSeconds());
+        answer.setPersistent(persistent);
+        return answer;
+    }
+
+    protected boolean isStored(CacheSettings settings) {
+        return settings.isPersistent() && options.isPersistent();
+    }
+
+    protected long getLifespanSeconds(CacheSettings settings) {
+        long answer = Math.max(settings.getLifespanSeconds(), settings.getRefreshAfterSeconds());
+        if (isStored(settings)) {
+            answer = Math.max(answer, options.getStoreLifespanSeconds());
+        }
+        return answer;
+    }
+
+    protected CacheMode getCacheMode(boolean replicable) {
+        switch (options.getClusterMode()) {
+            case REPLICATED:
+                return replicable ? CacheMode.REPL_SYNC : CacheMode.INVALIDATION_SYNC;
+            case INVALIDATION:
+                return CacheMode.INVALIDATION_SYNC;
+            default:
+                return CacheMode.LOCAL;
+        }
+    }
+
+    protected void registerMetricsMBeans() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (String name : cacheNames) {
+            try {
+                ObjectName objectName = new ObjectName(METRICS_OBJECT_NAME_PREFIX + ObjectName.quote(name));
+                if (!mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.registerMBean(Caches.metrics(name), objectName);
+                    registeredMBeans.add(objectName);
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to register the metrics MBean for cache " + name + ". " + e, e);
+            }
+        }
+    }
+
+    protected void unregisterMetricsMBeans() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registeredMBeans) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (Exception e) {
+                LOG.debug("Failed to unregister MBean " + objectName + ". " + e, e);
+            }
+        }
+        registeredMBeans.clear();
+    }
+
+    protected void startMetricsEndpoint() {
+        String port = System.getenv(EnvironmentVariables.CACHE_METRICS_PORT);
+        if (Strings.isNotBlank(port)) {
+            try {
+                metricsEndpoint = new CacheMetricsEndpoint(Integer.parseInt(port.trim()));
+                metricsEndpoint.start();
+            } catch (Exception e) {
+                LOG.warn("Failed to start the cache metrics endpoint on port " + port + ". " + e, e);
+                metricsEndpoint = null;
+            }
+        }
     }
 
 }
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import io.fabric8.forge.generator.git.GitAccount;
+import io.fabric8.forge.generator.git.GitRepositoryDTO;
+import io.fabric8.forge.generator.git.GitRepositoryListing;
+import io.fabric8.forge.generator.git.GitSecretNames;
+import io.fabric8.forge.generator.git.RepositoryAvailability;
+import io.fabric8.forge.generator.github.GitHubClientPool;
+import io.fabric8.forge.generator.github.GitHubFacade;
+import io.fabric8.forge.generator.kubernetes.CachedSpaces;
+import io.fabric8.forge.generator.tenant.NamespaceDTO;
+import io.fabric8.utils.Strings;
+import org.infinispan.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Evicts or patches just the cache entries affected by a {@link CacheEvent}
+ */
+public class CacheInvalidator implements CacheEventListener {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CacheInvalidator.class);
+    private static final int MAX_REPLACE_ATTEMPTS = 5;
+
+    private final CacheFacade cacheFacade;
+
+    public CacheInvalidator(CacheFacade cacheFacade) {
+        this.cacheFacade = cacheFacade;
+    }
+
+    @Override
+    public void onEvent(CacheEvent event) {
+        switch (event.getKind()) {
+            case REPOSITORY_CREATED:
+                onRepositoryCreated(event);
+                break;
+            case BUILD_CONFIGS_CREATED:
+                onBuildConfigsCreated(event);
+                break;
+            case SECRET_STORED:
+                onSecretStored(event);
+                break;
+            default:
+                LOG.warn("Unknown event " + event);
+        }
+    }
+
+    /**
+     * Adds the new repository to the cached repositories of the organisation.
+     * <p>
+     * We use a conditional replace rather than <code>computeIfPresent</code> so that no lambda has to be marshalled
+     * to the other nodes of a clustered cache; if the entry changed in the meantime we try again.
+     */
+    protected void onRepositoryCreated(CacheEvent event) {
+        GitRepositoryDTO repository = event.getRepository();
+        if (Strings.isNullOrBlank(event.getGitUserCacheKey()) || repository == null) {
+            return;
+        }
+        String provider = event.getGitProvider();
+        if (RepositoryAvailability.GITHUB.equals(provider)) {
+            String orgKey = event.getGitUserCacheKey() + "/" + event.getGitOrganisation();
+            Cache<String, Collection<GitRepositoryDTO>> repositoriesCache = cacheFacade.getCache(CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION);
+            boolean updated = false;
+            for (int attempt = 0; attempt < MAX_REPLACE_ATTEMPTS && !updated; attempt++) {
+                Collection<GitRepositoryDTO> repositories = repositoriesCache.get(orgKey);
+                updated = repositories == null
+                        || repositoriesCache.replace(orgKey, repositories, GitRepositoryListing.of(repositories).with(repository));
+            }
+            if (!updated) {
+                LOG.debug("Removing the repositories of " + orgKey + " as they kept changing while adding " + repository.getName());
+                repositoriesCache.remove(orgKey);
+            }
+            evictNotFound(event);
+        }
+
+        Cache<String, Boolean> availabilityCache = cacheFacade.getCache(CacheNames.REPOSITORY_AVAILABILITY);
+        availabilityCache.remove(RepositoryAvailability.cacheKey(provider, event.getGitUserCacheKey(),
+                event.getGitOrganisation(), repository.getName()));
+    }
+
+    /**
+     * The BuildConfigs are created after we've pushed a Jenkinsfile to the repositories and may have lazily created
+     * the namespace
+     */
+    protected void onBuildConfigsCreated(CacheEvent event) {
+        evictNotFound(event);
+
+        String userCacheKey = event.getUserCacheKey();
+        String namespace = event.getNamespace();
+        if (Strings.isNullOrBlank(userCacheKey) || Strings.isNullOrBlank(namespace)) {
+            return;
+        }
+        Cache<String, List<NamespaceDTO>> namespacesCache = cacheFacade.getCache(CacheNames.USER_NAMESPACES);
+        List<NamespaceDTO> namespaces = namespacesCache.get(userCacheKey);
+        if (namespaces != null && !containsNamespace(namespaces, namespace)) {
+            namespacesCache.remove(userCacheKey);
+        }
+        Cache<String, CachedSpaces> spacesCache = cacheFacade.getCache(CacheNames.USER_SPACES);
+        spacesCache.remove(CachedSpaces.cacheKey(userCacheKey, namespace));
+    }
+
+    /**
+     * Evicts the cached git account of the user along with the pooled github client for its old credentials
+     */
+    protected void onSecretStored(CacheEvent event) {
+        String userCacheKey = event.getUserCacheKey();
+        if (Strings.isNullOrBlank(userCacheKey)) {
+            return;
+        }
+        if (Objects.equals(GitSecretNames.GOGS_SECRET_NAME, event.getSecretName())) {
+            cacheFacade.getCache(CacheNames.GOGS_ACCOUNT_FROM_SECRET).remove(userCacheKey);
+            return;
+        }
+        Cache<String, GitAccount> accountCache = cacheFacade.getCache(CacheNames.GITHUB_ACCOUNT_FROM_SECRET);
+        GitAccount old = accountCache.remove(userCacheKey);
+        if (old != null) {
+            GitHubClientPool.getInstance().remove(old);
+        }
+    }
+
+    /**
+     * Removes any cached not found results for the files of the repositories
+     */
+    protected void evictNotFound(CacheEvent event) {
+        String gitUserCacheKey = event.getGitUserCacheKey();
+        if (Strings.isNullOrBlank(gitUserCacheKey) || event.getRepositoryNames().isEmpty()) {
+            return;
+        }
+        Cache<String, Integer> notFoundCache = cacheFacade.getCache(CacheNames.GITHUB_NOT_FOUND);
+        for (String repositoryName : event.getRepositoryNames()) {
+            for (String key : GitHubFacade.notFoundKeys(gitUserCacheKey, event.getGitOrganisation(), repositoryName)) {
+                notFoundCache.remove(key);
+            }
+        }
+    }
+
+    private static boolean containsNamespace(List<NamespaceDTO> namespaces, String namespace) {
+        for (NamespaceDTO dto : namespaces) {
+            if (Objects.equals(namespace, dto.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import org.infinispan.Cache;
+import org.infinispan.stats.Stats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss and loader latency statistics for a single cache.
+ * <p>
+ * Hits and misses are recorded by {@link Caches#computeIfAbsent} while evictions and entry counts come
+ * from the infinispan statistics of the bound cache.
+ */
+public class CacheMetrics implements CacheMetricsMBean {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CacheMetrics.class);
+
+    /**
+     * The upper bounds in milliseconds of the loader latency histogram buckets; the last bucket is unbounded
+     */
+    public static final long[] LOAD_LATENCY_BOUNDS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final String cacheName;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder refreshesRejected = new LongAdder();
+    private final AtomicLongArray loadLatencyBuckets = new AtomicLongArray(LOAD_LATENCY_BOUNDS_MILLIS.length + 1);
+    private volatile Cache<?, ?> cache;
+
+    public CacheMetrics(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheMetrics{" +
+                "cacheName='" + cacheName + '\'' +
+                ", hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", loadCount=" + getLoadCount() +
+                ", coalescedLoads=" + getCoalescedLoads() +
+                ", averageLoadMillis=" + getAverageLoadMillis() +
+                '}';
+    }
+
+    /**
+     * Binds the infinispan cache so that we can report its evictions and entry count
+     */
+    public void bind(Cache<?, ?> cache) {
+        this.cache = cache;
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordLoad(long nanos) {
+        loadCount.increment();
+        loadTimeNanos.add(nanos);
+        loadLatencyBuckets.incrementAndGet(bucketIndex(TimeUnit.NANOSECONDS.toMillis(nanos)));
+    }
+
+    public void recordLoadFailure(long nanos) {
+        recordLoad(nanos);
+        loadFailures.increment();
+    }
+
+    /**
+     * Records a miss which waited for a load already in progress rather than invoking the loader again
+     */
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    /**
+     * Records a background reload of a stale entry which also counts as a load
+     */
+    public void recordRefresh(long nanos) {
+        refreshes.increment();
+        recordLoad(nanos);
+    }
+
+    public void recordRefreshFailure(long nanos) {
+        refreshes.increment();
+        refreshFailures.increment();
+        recordLoadFailure(nanos);
+    }
+
+    public void recordRefreshRejected() {
+        refreshesRejected.increment();
+    }
+
+    protected static int bucketIndex(long millis) {
+        for (int i = 0; i < LOAD_LATENCY_BOUNDS_MILLIS.length; i++) {
+            if (millis <= LOAD_LATENCY_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return LOAD_LATENCY_BOUNDS_MILLIS.length;
+    }
+
+    @Override
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        if (total == 0) {
+            return 0;
+        }
+        return (double) hitCount / total;
+    }
+
+    @Override
+    public long getEvictions() {
+        Stats stats = getCacheStats();
+        return stats != null ? stats.getEvictions() : 0;
+    }
+
+    @Override
+    public long getEntries() {
+        Stats stats = getCacheStats();
+        return stats != null ? stats.getCurrentNumberOfEntries() : 0;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    @Override
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    @Override
+    public double getAverageLoadMillis() {
+        long count = getLoadCount();
+        if (count == 0) {
+            return 0;
+        }
+        return loadTimeNanos.sum() / (count * 1000000.0);
+    }
+
+    @Override
+    public long getCoalescedLoads() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    @Override
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    @Override
+    public long getRefreshesRejected() {
+        return refreshesRejected.sum();
+    }
+
+    public double getTotalLoadSeconds() {
+        return loadTimeNanos.sum() / 1000000000.0;
+    }
+
+    @Override
+    public long[] getLoadLatencyBucketBoundsMillis() {
+        return Arrays.copyOf(LOAD_LATENCY_BOUNDS_MILLIS, LOAD_LATENCY_BOUNDS_MILLIS.length);
+    }
+
+    @Override
+    public long[] getLoadLatencyBuckets() {
+        long[] answer = new long[loadLatencyBuckets.length()];
+        for (int i = 0; i < answer.length; i++) {
+            answer[i] = loadLatencyBuckets.get(i);
+        }
+        return answer;
+    }
+
+    @Override
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        loadCount.reset();
+        loadFailures.reset();
+        loadTimeNanos.reset();
+        coalesced.reset();
+        refreshes.reset();
+        refreshFailures.reset();
+        refreshesRejected.reset();
+        for (int i = 0; i < loadLatencyBuckets.length(); i++) {
+            loadLatencyBuckets.set(i, 0);
+        }
+    }
+
+    protected Stats getCacheStats() {
+        Cache<?, ?> cache = this.cache;
+        if (cache != null) {
+            try {
+                return cache.getAdvancedCache().getStats();
+            } catch (Exception e) {
+                LOG.debug("Could not load the statistics of cache " + cacheName + ". " + e, e);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Exposes the {@link CacheMetrics} in the prometheus text format on <code>/metrics</code>
+ */
+public class CacheMetricsEndpoint {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CacheMetricsEndpoint.class);
+    public static final String PATH = "/metrics";
+
+    private final int port;
+    private HttpServer server;
+
+    public CacheMetricsEndpoint(int port) {
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(PATH, exchange -> {
+            try {
+                byte[] body = toPrometheusText(Caches.getAllMetrics()).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.start();
+        LOG.info("Exposing cache metrics on port " + port + " at " + PATH);
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    public static String toPrometheusText(Collection<CacheMetrics> values) {
+        List<CacheMetrics> list = new ArrayList<>(values);
+        list.sort(Comparator.comparing(CacheMetrics::getCacheName));
+
+        StringBuilder builder = new StringBuilder();
+        appendHeader(builder, "generator_cache_hits_total", "counter", "The number of cache lookups which found a value");
+        for (CacheMetrics metrics : list) {
+            appendSample(builder, "generator_cache_hits_total", metrics, null, metrics.getHits());
+        }
+        appendHeader(builder, "generator_cache_misses_total", "counter", "The number of cache lookups which had to invoke the loader");
+        for (CacheMetrics metrics : list) {
+            appendSample(builder, "generator_cache_misses_total", metrics, null, metrics.getMisses());
+        }
+        appendHeader(builder, "generator_cache_evictions_total", "counter", "The number of entries evicted from the cache");
+        for (CacheMetrics metrics : list) {
+            appendSample(builder, "generator_cache_evictions_total", metrics, null, metrics.getEvictions());
+        }
+        appendHeader(builder, "generator_cache_entries", "gauge", "The current number of entries in the cache");
+        for (CacheMetrics metrics : list) {
+            appendSample(builder, "generator_cache_entries", metrics, null, metrics.getEntries());
+        }
+        appendHeader(builder, "generator_cache_load_failures_total", "counter", "The number of cache loads which threw an exception");
+        for (CacheMetrics metrics : list) {
+            appendSample(builder, "generator_cache_load_failures_total", metrics, null, metrics.getLoadFailures());
+        }
+        appendHeader(builder, "generator_cache_coalesced_loads_total", "counter", "The number of misses which shared a load already in progress");
+        for (CacheMetrics metrics : list) {
+            appendSample(builder, "generator_cache_coalesced_loads_total", metrics, null, metrics.getCoalescedLoads());
+        }
+        appendHeader(builder, "generator_cache_refreshes_total", "counter", "The number of stale entries reloaded in the background");
+        for (CacheMetrics metrics : list) {
+            appendSample(builder, "generator_cache_refreshes_total", metrics, null, metrics.getRefreshes());
+        }
+        appendHeader(builder, "generator_cache_refreshes_rejected_total", "counter", "The number of stale entries not refreshed as the refresh queue was full");
+        for (CacheMetrics metrics : list) {
+            appendSample(builder, "generator_cache_refreshes_rejected_total", metrics, null, metrics.getRefreshesRejected());
+        }
+        appendHeader(builder, "generator_cache_load_seconds", "histogram", "The latency of the cache loaders");
+        for (CacheMetrics metrics : list) {
+            long[] bounds = metrics.getLoadLatencyBucketBoundsMillis();
+            long[] buckets = metrics.getLoadLatencyBuckets();
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i];
+                String le = i < bounds.length ? Double.toString(bounds[i] / 1000.0) : "+Inf";
+                appendSample(builder, "generator_cache_load_seconds_bucket", metrics, "le=\"" + le + "\"", cumulative);
+            }
+            appendSample(builder, "generator_cache_load_seconds_sum", metrics, null, metrics.getTotalLoadSeconds());
+            appendSample(builder, "generator_cache_load_seconds_count", metrics, null, metrics.getLoadCount());
+        }
+        return builder.toString();
+    }
+
+    private static void appendHeader(StringBuilder builder, String name, String type, String help) {
+        builder.append("# HELP ").append(name).append(" ").append(help).append("\n");
+        builder.append("# TYPE ").append(name).append(" ").append(type).append("\n");
+    }
+
+    private static void appendSample(StringBuilder builder, String name, CacheMetrics metrics, String extraLabel, Number value) {
+        builder.append(name).append("{cache=\"").append(metrics.getCacheName()).append("\"");
+        if (extraLabel != null) {
+            builder.append(",").append(extraLabel);
+        }
+        builder.append("} ").append(value).append("\n");
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * The configuration of the {@link CacheFacade}
+ */
+public class CacheOptions {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CacheOptions.class);
+
+    public static final String DEFAULT_CLUSTER_NAME = "fabric8-generator";
+    public static final int DEFAULT_STORE_MAX_ENTRIES = 1000;
+    public static final int DEFAULT_STORE_LIFESPAN_SECONDS = 24 * 60 * 60;
+    public static final int DEFAULT_REFRESH_AFTER_SECONDS = 5 * 60;
+    public static final int DEFAULT_REFRESH_LIFESPAN_SECONDS = 30 * 60;
+
+    private CacheClusterMode clusterMode = CacheClusterMode.LOCAL;
+    private String clusterName = DEFAULT_CLUSTER_NAME;
+    private String jgroupsConfig;
+    private String nodeName;
+    private String storeDirectory;
+    private int storeMaxEntries = DEFAULT_STORE_MAX_ENTRIES;
+    private int storeLifespanSeconds = DEFAULT_STORE_LIFESPAN_SECONDS;
+    private int refreshAfterSeconds = DEFAULT_REFRESH_AFTER_SECONDS;
+    private int refreshLifespanSeconds = DEFAULT_REFRESH_LIFESPAN_SECONDS;
+    private int refreshThreads = Caches.DEFAULT_REFRESH_THREADS;
+    private int refreshQueueSize = Caches.DEFAULT_REFRESH_QUEUE_SIZE;
+    private Properties cacheProperties = new Properties();
+
+    /**
+     * Creates the options from the <code>CACHE_CLUSTER_*</code>, <code>CACHE_JGROUPS_CONFIG</code>,
+     * <code>CACHE_STORE_*</code>, <code>CACHE_REFRESH_*</code> and <code>CACHE_CONFIG_FILE</code>
+     * environment variables
+     */
+    public static CacheOptions fromEnvironment() {
+        CacheOptions answer = new CacheOptions();
+        answer.setClusterMode(CacheClusterMode.fromText(System.getenv(EnvironmentVariables.CACHE_CLUSTER_MODE)));
+        String clusterName = System.getenv(EnvironmentVariables.CACHE_CLUSTER_NAME);
+        if (Strings.isNotBlank(clusterName)) {
+            answer.setClusterName(clusterName);
+        }
+        answer.setJgroupsConfig(System.getenv(EnvironmentVariables.CACHE_JGROUPS_CONFIG));
+        answer.setNodeName(System.getenv("HOSTNAME"));
+        answer.setStoreDirectory(System.getenv(EnvironmentVariables.CACHE_STORE_DIR));
+        answer.setStoreMaxEntries(getIntEnv(EnvironmentVariables.CACHE_STORE_MAX_ENTRIES, DEFAULT_STORE_MAX_ENTRIES));
+        answer.setStoreLifespanSeconds(getIntEnv(EnvironmentVariables.CACHE_STORE_LIFESPAN_SECONDS, DEFAULT_STORE_LIFESPAN_SECONDS));
+        answer.setRefreshAfterSeconds(getIntEnv(EnvironmentVariables.CACHE_REFRESH_AFTER_SECONDS, DEFAULT_REFRESH_AFTER_SECONDS));
+        answer.setRefreshLifespanSeconds(getIntEnv(EnvironmentVariables.CACHE_REFRESH_LIFESPAN_SECONDS, DEFAULT_REFRESH_LIFESPAN_SECONDS));
+        answer.setRefreshThreads(getIntEnv(EnvironmentVariables.CACHE_REFRESH_THREADS, Caches.DEFAULT_REFRESH_THREADS));
+        answer.setRefreshQueueSize(getIntEnv(EnvironmentVariables.CACHE_REFRESH_QUEUE_SIZE, Caches.DEFAULT_REFRESH_QUEUE_SIZE));
+        String configFile = System.getenv(EnvironmentVariables.CACHE_CONFIG_FILE);
+        if (Strings.isNotBlank(configFile)) {
+            answer.setCacheProperties(loadProperties(configFile));
+        }
+        return answer;
+    }
+
+    protected static Properties loadProperties(String fileName) {
+        Properties answer = new Properties();
+        try (InputStream in = new FileInputStream(fileName)) {
+            answer.load(in);
+        } catch (IOException e) {
+            LOG.warn("Failed to load cache configuration file " + fileName + ". " + e, e);
+        }
+        return answer;
+    }
+
+    /**
+     * Applies any overrides of the given default settings.
+     * <p>
+     * Each setting can be overridden by an environment variable such as
+     * <code>CACHE_GITHUB_REPOSITORIES_FOR_ORGANISATION_MAX_BYTES</code> or by a property such as
+     * <code>github-repositories-for-organisation.max-bytes</code> in the <code>CACHE_CONFIG_FILE</code>.
+     * The supported settings are <code>max-entries</code>, <code>max-bytes</code>, <code>lifespan-seconds</code>
+     * and <code>refresh-after-seconds</code>.
+     */
+    public CacheSettings applyOverrides(CacheSettings settings) {
+        String name = settings.getName();
+        settings.setMaxEntries(getLongSetting(name, "max-entries", settings.getMaxEntries()));
+        settings.setMaxBytes(getLongSetting(name, "max-bytes", settings.getMaxBytes()));
+        settings.setLifespanSeconds(getLongSetting(name, "lifespan-seconds", settings.getLifespanSeconds()));
+        settings.setRefreshAfterSeconds(getLongSetting(name, "refresh-after-seconds", settings.getRefreshAfterSeconds()));
+        return settings;
+    }
+
+    protected long getLongSetting(String cacheName, String setting, long defaultValue) {
+        String envVarName = ("cache-" + cacheName + "-" + setting).toUpperCase().replace('-', '_');
+        String value = System.getenv(envVarName);
+        String source = envVarName;
+        if (Strings.isNullOrBlank(value)) {
+            source = cacheName + "." + setting;
+            value = cacheProperties.getProperty(source);
+        }
+        if (Strings.isNotBlank(value)) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring " + source + " as it is not a number: " + value);
+            }
+        }
+        return defaultValue;
+    }
+
+    protected static int getIntEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (Strings.isNotBlank(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring $" + name + " as it is not a number: " + value);
+            }
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheOptions{" +
+                "clusterMode=" + clusterMode +
+                ", clusterName='" + clusterName + '\'' +
+                ", jgroupsConfig='" + jgroupsConfig + '\'' +
+                ", nodeName='" + nodeName + '\'' +
+                ", storeDirectory='" + storeDirectory + '\'' +
+                ", storeMaxEntries=" + storeMaxEntries +
+                ", storeLifespanSeconds=" + storeLifespanSeconds +
+                ", refreshAfterSeconds=" + refreshAfterSeconds +
+                ", refreshLifespanSeconds=" + refreshLifespanSeconds +
+                ", refreshThreads=" + refreshThreads +
+                ", refreshQueueSize=" + refreshQueueSize +
+                '}';
+    }
+
+    public CacheClusterMode getClusterMode() {
+        return clusterMode;
+    }
+
+    public void setClusterMode(CacheClusterMode clusterMode) {
+        this.clusterMode = clusterMode;
+    }
+
+    public String getClusterName() {
+        return clusterName;
+    }
+
+    public void setClusterName(String clusterName) {
+        this.clusterName = clusterName;
+    }
+
+    /**
+     * Returns the JGroups stack file or classpath resource used to discover the other pods;
+     * if blank the default infinispan UDP stack is used
+     */
+    public String getJgroupsConfig() {
+        return jgroupsConfig;
+    }
+
+    public void setJgroupsConfig(String jgroupsConfig) {
+        this.jgroupsConfig = jgroupsConfig;
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public void setNodeName(String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    public boolean isPersistent() {
+        return Strings.isNotBlank(storeDirectory);
+    }
+
+    /**
+     * Returns the directory used to persist the GitHub organisation and repository caches across restarts;
+     * if blank the caches are only held in memory
+     */
+    public String getStoreDirectory() {
+        return storeDirectory;
+    }
+
+    public void setStoreDirectory(String storeDirectory) {
+        this.storeDirectory = storeDirectory;
+    }
+
+    public int getStoreMaxEntries() {
+        return storeMaxEntries;
+    }
+
+    public void setStoreMaxEntries(int storeMaxEntries) {
+        this.storeMaxEntries = storeMaxEntries;
+    }
+
+    /**
+     * Returns how long persisted entries are kept; they are refreshed in the background when used after
+     * the refresh period
+     */
+    public int getStoreLifespanSeconds() {
+        return storeLifespanSeconds;
+    }
+
+    public void setStoreLifespanSeconds(int storeLifespanSeconds) {
+        this.storeLifespanSeconds = storeLifespanSeconds;
+    }
+
+    /**
+     * Returns the soft TTL after which entries of the organisation and repository caches are served as is but
+     * reloaded in the background
+     */
+    public int getRefreshAfterSeconds() {
+        return refreshAfterSeconds;
+    }
+
+    public void setRefreshAfterSeconds(int refreshAfterSeconds) {
+        this.refreshAfterSeconds = refreshAfterSeconds;
+    }
+
+    /**
+     * Returns the hard TTL of the organisation and repository caches after which callers block on reloading them
+     */
+    public int getRefreshLifespanSeconds() {
+        return refreshLifespanSeconds;
+    }
+
+    public void setRefreshLifespanSeconds(int refreshLifespanSeconds) {
+        this.refreshLifespanSeconds = refreshLifespanSeconds;
+    }
+
+    public int getRefreshThreads() {
+        return refreshThreads;
+    }
+
+    public void setRefreshThreads(int refreshThreads) {
+        this.refreshThreads = refreshThreads;
+    }
+
+    public int getRefreshQueueSize() {
+        return refreshQueueSize;
+    }
+
+    public void setRefreshQueueSize(int refreshQueueSize) {
+        this.refreshQueueSize = refreshQueueSize;
+    }
+
+    public Properties getCacheProperties() {
+        return cacheProperties;
+    }
+
+    public void setCacheProperties(Properties cacheProperties) {
+        this.cacheProperties = cacheProperties;
+    }
+}
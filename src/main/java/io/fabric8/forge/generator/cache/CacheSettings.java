@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+/**
+ * The sizing and expiry of a single cache which can be overridden via {@link CacheOptions#applyOverrides(CacheSettings)}
+ */
+public class CacheSettings {
+    private final String name;
+    private long maxEntries;
+    private long maxBytes;
+    private long lifespanSeconds;
+    private long refreshAfterSeconds;
+    private boolean replicable;
+    private boolean persistent;
+
+    public CacheSettings(String name, long maxEntries, long lifespanSeconds, boolean replicable) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.lifespanSeconds = lifespanSeconds;
+        this.replicable = replicable;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheSettings{" +
+                "name='" + name + '\'' +
+                ", maxEntries=" + maxEntries +
+                ", maxBytes=" + maxBytes +
+                ", lifespanSeconds=" + lifespanSeconds +
+                ", refreshAfterSeconds=" + refreshAfterSeconds +
+                ", replicable=" + replicable +
+                ", persistent=" + persistent +
+                '}';
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the maximum number of entries; only used if {@link #getMaxBytes()} is not set
+     */
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the approximate maximum memory used by the entries or zero to bound the cache by the number of entries.
+     * As this requires the entries to be stored in binary form its only supported for replicable caches.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the hard TTL after which entries expire
+     */
+    public long getLifespanSeconds() {
+        return lifespanSeconds;
+    }
+
+    public void setLifespanSeconds(long lifespanSeconds) {
+        this.lifespanSeconds = lifespanSeconds;
+    }
+
+    /**
+     * Returns the soft TTL after which entries are refreshed in the background or zero if entries are only
+     * reloaded when they expire
+     */
+    public long getRefreshAfterSeconds() {
+        return refreshAfterSeconds;
+    }
+
+    public void setRefreshAfterSeconds(long refreshAfterSeconds) {
+        this.refreshAfterSeconds = refreshAfterSeconds;
+    }
+
+    /**
+     * Returns whether the values are serializable and safe to copy to the other pods when running in
+     * {@link CacheClusterMode#REPLICATED} mode; otherwise the cache is only invalidated across the cluster
+     */
+    public boolean isReplicable() {
+        return replicable;
+    }
+
+    public void setReplicable(boolean replicable) {
+        this.replicable = replicable;
+    }
+
+    /**
+     * Returns whether the cache is written to the store directory, if one is configured, so it survives restarts
+     */
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    public void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+}
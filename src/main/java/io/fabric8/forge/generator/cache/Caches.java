@@ -16,12 +16,269 @@
  */
 package io.fabric8.forge.generator.cache;
 
+import org.infinispan.Cache;
+import org.infinispan.container.entries.CacheEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  */
 public class Caches {
     private static final transient Logger LOG = LoggerFactory.getLogger(Caches.class);
 
+    public static final int DEFAULT_REFRESH_THREADS = 2;
+    public static final int DEFAULT_REFRESH_QUEUE_SIZE = 100;
+
+    private static final Map<String, CacheMetrics> metrics = new ConcurrentHashMap<>();
+    private static final Map<String, Long> refreshAfterMillis = new ConcurrentHashMap<>();
+    private static final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private static final ThreadLocal<Boolean> backgroundLoad = new ThreadLocal<>();
+    private static final Map<Map.Entry<String, Object>, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private static volatile ThreadPoolExecutor refreshExecutor = createRefreshExecutor(DEFAULT_REFRESH_THREADS, DEFAULT_REFRESH_QUEUE_SIZE);
+
+    /**
+     * Returns the cached value for the given key or invokes the loader to create it, recording the hit, miss and
+     * loader latency in the {@link CacheMetrics} for the cache.
+     * <p>
+     * If the cache has a refresh period (see {@link #refreshAfter(String, long, TimeUnit)}) and the entry is older
+     * than it then the current value is returned and the entry is reloaded in the background. Only entries which
+     * have expired (i.e. are past the lifespan of the cache) block the caller.
+     * <p>
+     * Concurrent misses on the same key share a single invocation of the loader; the other callers wait for its
+     * result and are counted as coalesced loads.
+     * <p>
+     * The loader is invoked locally and the result stored with <code>putIfAbsent</code> rather than passing the
+     * loader to the cache, as a clustered cache would have to marshall the lambda to the owner of the key.
+     */
+    public static <K, V> V computeIfAbsent(Cache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CacheMetrics cacheMetrics = metrics(cache.getName());
+        V value = cache.get(key);
+        if (value != null) {
+            cacheMetrics.recordHit();
+            Long refreshAfter = refreshAfterMillis.get(cache.getName());
+            if (refreshAfter != null) {
+                refreshIfStale(cache, key, loader, refreshAfter);
+            }
+            return value;
+        }
+        cacheMetrics.recordMiss();
+
+        Map.Entry<String, Object> loadingKey = new AbstractMap.SimpleImmutableEntry<>(cache.getName(), key);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(loadingKey, future);
+        if (inFlight != null) {
+            cacheMetrics.recordCoalesced();
+            return (V) join(inFlight);
+        }
+        long start = System.nanoTime();
+        try {
+            value = loader.apply(key);
+            if (value != null) {
+                V existing = cache.putIfAbsent(key, value);
+                if (existing != null) {
+                    value = existing;
+                }
+            }
+            cacheMetrics.recordLoad(System.nanoTime() - start);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            cacheMetrics.recordLoadFailure(System.nanoTime() - start);
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(loadingKey, future);
+        }
+    }
+
+    protected static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Entries of the given cache which are older than the given period are returned as is but reloaded in the
+     * background, such as entries restored from a persistent store after a restart. If the reload fails or returns
+     * nothing or an empty value the existing entry is kept and the failure is recorded in the metrics.
+     * <p>
+     * The lifespan of the cache should be longer than this period; its the hard limit after which callers block on
+     * the loader.
+     */
+    public static void refreshAfter(String cacheName, long period, TimeUnit unit) {
+        refreshAfterMillis.put(cacheName, unit.toMillis(period));
+    }
+
+    /**
+     * Loads the given key in the background, using the same executor as the background refreshes, if its not
+     * already cached so that a later call to {@link #computeIfAbsent(Cache, Object, Function)} is a hit; a stale
+     * entry is refreshed in the background as usual
+     */
+    public static <K, V> void prefetch(Cache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        if (cache.containsKey(key)) {
+            Long refreshAfter = refreshAfterMillis.get(cache.getName());
+            if (refreshAfter != null) {
+                refreshIfStale(cache, key, loader, refreshAfter);
+            }
+            return;
+        }
+        String id = cache.getName() + "/" + key;
+        if (!refreshing.add(id)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    computeIfAbsent(cache, key, loader);
+                } catch (Exception e) {
+                    LOG.warn("Failed to prefetch " + id + ". " + e, e);
+                } finally {
+                    refreshing.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(id);
+            metrics(cache.getName()).recordRefreshRejected();
+            LOG.debug("Too many pending refreshes so not prefetching " + id);
+        }
+    }
+
+    /**
+     * Configures the number of threads and the maximum number of pending background refreshes;
+     * any further stale entries are not refreshed until the queue has room
+     */
+    public static synchronized void configureRefreshExecutor(int threads, int queueSize) {
+        ThreadPoolExecutor old = refreshExecutor;
+        refreshExecutor = createRefreshExecutor(threads, queueSize);
+        old.shutdown();
+    }
+
+    protected static ThreadPoolExecutor createRefreshExecutor(int threads, int queueSize) {
+        ThreadPoolExecutor answer = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(() -> {
+                backgroundLoad.set(Boolean.TRUE);
+                runnable.run();
+            }, "cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        answer.allowCoreThreadTimeOut(true);
+        return answer;
+    }
+
+    protected static <K, V> void refreshIfStale(Cache<K, V> cache, K key, Function<? super K, ? extends V> loader, long refreshAfter) {
+        CacheEntry<K, V> entry = cache.getAdvancedCache().getCacheEntry(key);
+        if (entry == null || entry.getCreated() <= 0 || System.currentTimeMillis() - entry.getCreated() < refreshAfter) {
+            return;
+        }
+        String id = cache.getName() + "/" + key;
+        if (!refreshing.add(id)) {
+            return;
+        }
+        CacheMetrics cacheMetrics = metrics(cache.getName());
+        try {
+            refreshExecutor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    V value = loader.apply(key);
+                    if (value == null || isDegraded(entry.getValue(), value)) {
+                        cacheMetrics.recordRefreshFailure(System.nanoTime() - start);
+                        LOG.warn("Keeping the cached " + id + " as the refresh returned " + (value == null ? "nothing" : "an empty value"));
+                    } else {
+                        cacheMetrics.recordRefresh(System.nanoTime() - start);
+                        // only replace the entry so that we don't resurrect one which was invalidated during the refresh
+                        cache.replace(key, value);
+                    }
+                } catch (Exception e) {
+                    cacheMetrics.recordRefreshFailure(System.nanoTime() - start);
+                    LOG.warn("Failed to refresh " + id + ". " + e, e);
+                } finally {
+                    refreshing.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(id);
+            cacheMetrics.recordRefreshRejected();
+            LOG.debug("Too many pending refreshes so skipping " + id);
+        }
+    }
+
+    /**
+     * Returns true if the refreshed value looks like a failed load, an empty collection or map, while the existing
+     * value was not empty; loaders should throw on failure but some remote APIs just return nothing
+     */
+    protected static boolean isDegraded(Object oldValue, Object newValue) {
+        if (newValue instanceof Collection && oldValue instanceof Collection) {
+            return ((Collection<?>) newValue).isEmpty() && !((Collection<?>) oldValue).isEmpty();
+        }
+        if (newValue instanceof Map && oldValue instanceof Map) {
+            return ((Map<?, ?>) newValue).isEmpty() && !((Map<?, ?>) oldValue).isEmpty();
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the current thread is loading or refreshing cache entries in the background rather than on
+     * behalf of a waiting user
+     */
+    public static boolean isBackgroundLoad() {
+        return Boolean.TRUE.equals(backgroundLoad.get());
+    }
+
+    /**
+     * Invokes the given block marked as a background load or not, such as when a background load hands work to
+     * other threads
+     */
+    public static <T> T withBackgroundLoad(boolean background, Supplier<T> block) {
+        Boolean old = backgroundLoad.get();
+        backgroundLoad.set(background);
+        try {
+            return block.get();
+        } finally {
+            if (old != null) {
+                backgroundLoad.set(old);
+            } else {
+                backgroundLoad.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the metrics for the given cache name, lazily creating them if required
+     */
+    public static CacheMetrics metrics(String cacheName) {
+        return metrics.computeIfAbsent(cacheName, CacheMetrics::new);
+    }
+
+    /**
+     * Returns the metrics of all the caches used so far
+     */
+    public static Collection<CacheMetrics> getAllMetrics() {
+        return new ArrayList<>(metrics.values());
+    }
 }
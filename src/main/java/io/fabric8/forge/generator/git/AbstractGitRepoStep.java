@@ -20,6 +20,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import io.fabric8.devops.ProjectConfigs;
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.pipeline.AbstractDevToolsCommand;
+import io.fabric8.forge.generator.utils.RetryPolicy;
 import io.fabric8.project.support.GitUtils;
 import io.fabric8.project.support.UserDetails;
 import io.fabric8.utils.IOHelpers;
@@ -46,6 +47,8 @@ import java.util.Collection;
 public abstract class AbstractGitRepoStep extends AbstractDevToolsCommand {
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
 
+    protected static final RetryPolicy GIT_PUSH_RETRY = new RetryPolicy("git-push", 5, 500, 8000, e -> e instanceof TransportException);
+
     private final String accountsCacheKey;
     private final String organisationsCacheKey;
 
@@ -117,26 +120,11 @@ public abstract class AbstractGitRepoStep extends AbstractDevToolsCommand {
         GitUtils.configureBranch(git, branch, origin, gitUrl);
         GitUtils.addDummyFileToEmptyFolders(basedir);
         logger.info("About to git commit and push to: " + gitUrl + " and remote name " + origin);
-        int retryCount = 5;
-        for (int i = retryCount; i > 0; i--) {
-            if (i < retryCount) {
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e1) {
-                    e1.printStackTrace();
-                }
-            }
-            try {
-                GitUtils.doAddCommitAndPushFiles(git, userDetails, personIdent, branch, origin, message, true);
-                return;
-            } catch (TransportException e) {
-                if (i <= 1) {
-                    throw e;
-                } else {
-                    logger.info("Caught a transport exception: " + e + " so retrying");
-                }
-            }
-        }
+        // each git host has its own retry budget so a failing host does not stop retries to the others
+        GIT_PUSH_RETRY.forTarget(RetryPolicy.hostOf(gitUrl)).execute(() -> {
+            GitUtils.doAddCommitAndPushFiles(git, userDetails, personIdent, branch, origin, message, true);
+            return null;
+        });
     }
 
     protected Result updateGitURLInJenkinsfile(File basedir, String gitUrl) {
@@ -16,6 +16,7 @@
  */
 package io.fabric8.forge.generator.git;
 
+import io.fabric8.forge.generator.cache.CacheEvent;
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
@@ -60,7 +61,8 @@ public abstract class AbstractGitSetupCredentialsStep extends AbstractDevToolsCo
 
     protected Result storeGitAccountInSecret(GitAccount details, String githubSecretName) {
         final String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        accountCache.evict(key);
-        return GitAccount.storeGitDetailsInSecret(kubernetesClient, namespace, githubSecretName, details);
+        Result result = GitAccount.storeGitDetailsInSecret(kubernetesClient, namespace, githubSecretName, details);
+        cacheManager.publish(CacheEvent.secretStored(key, githubSecretName));
+        return result;
     }
 }
@@ -19,6 +19,7 @@ package io.fabric8.forge.generator.git;
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.cache.Caches;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import org.infinispan.Cache;
@@ -59,7 +60,7 @@ public abstract class AbstractPickGitAccountStep extends AbstractGitCommand impl
 
         KubernetesClient kubernetesClient = KubernetesClientHelper.createKubernetesClient(builder.getUIContext());
         String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        List<GitProvider> gitServices = gitProviderCache.computeIfAbsent(key, k -> GitProvider.loadGitProviders());
+        List<GitProvider> gitServices = Caches.computeIfAbsent(gitProviderCache, key, k -> GitProvider.loadGitProviders());
         int size = gitServices.size();
         if (size > 0) {
             gitProvider.setDefaultValue(pickDefaultGitProvider(gitServices));
@@ -28,6 +28,10 @@ public class CloneRepoAttributes {
     private String uri;
     private boolean cloneAll = true;
     private String remote = "origin";
+    private boolean singleBranch;
+    private String branch;
+    private CloneStatistics statistics;
+    private String failure;
 
     public CloneRepoAttributes() {
     }
@@ -70,6 +74,48 @@ public class CloneRepoAttributes {
         this.directory = directory;
     }
 
+    /**
+     * Returns true if only a single branch should be cloned; either the {@link #getBranch()} or the
+     * default branch of the remote repository
+     */
+    public boolean isSingleBranch() {
+        return singleBranch;
+    }
+
+    public void setSingleBranch(boolean singleBranch) {
+        this.singleBranch = singleBranch;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public void setBranch(String branch) {
+        this.branch = branch;
+    }
+
+    /**
+     * Returns the statistics of the clone once it has been performed
+     */
+    public CloneStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(CloneStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the reason the clone failed if it did
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+
     public String getRemote() {
         return remote;
     }
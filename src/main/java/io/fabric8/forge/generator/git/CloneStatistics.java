@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import org.eclipse.jgit.lib.ProgressMonitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Collects the number of objects fetched from the remote by a clone and the size on disk of the objects it added
+ * so that we can report them; the size on disk is of the packs written by the clone, not the bytes transferred
+ */
+public class CloneStatistics implements ProgressMonitor {
+    private static final String RECEIVING_OBJECTS = "Receiving objects";
+
+    private final long startTime = System.currentTimeMillis();
+    private volatile long objects;
+    private volatile long bytesOnDisk;
+    private volatile long elapsedMillis;
+    private volatile String branch;
+    private volatile boolean mirrored;
+    private volatile long baselineBytes;
+
+    @Override
+    public void start(int totalTasks) {
+    }
+
+    @Override
+    public void beginTask(String title, int totalWork) {
+        if (title != null && title.startsWith(RECEIVING_OBJECTS) && totalWork > 0) {
+            objects = totalWork;
+        }
+    }
+
+    @Override
+    public void update(int completed) {
+    }
+
+    @Override
+    public void endTask() {
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * Records the size of the object database of the cloned repository once the clone has completed
+     */
+    public void completed(File gitDir) {
+        this.elapsedMillis = System.currentTimeMillis() - startTime;
+        this.bytesOnDisk = Math.max(0, directorySize(new File(gitDir, "objects")) - baselineBytes);
+    }
+
+    /**
+     * Records that the repository was cloned from a local mirror so that only the objects fetched from the remote
+     * afterwards are counted
+     */
+    public void mirrored(File gitDir) {
+        this.mirrored = true;
+        this.objects = 0;
+        this.baselineBytes = directorySize(new File(gitDir, "objects"));
+    }
+
+    protected static long directorySize(File dir) {
+        if (!dir.isDirectory()) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CloneStatistics{" +
+                "branch='" + branch + '\'' +
+                ", mirrored=" + mirrored +
+                ", objects=" + objects +
+                ", bytesOnDisk=" + bytesOnDisk +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+
+    public long getObjects() {
+        return objects;
+    }
+
+    public long getBytesOnDisk() {
+        return bytesOnDisk;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isMirrored() {
+        return mirrored;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public void setBranch(String branch) {
+        this.branch = branch;
+    }
+}
@@ -18,11 +18,13 @@ package io.fabric8.forge.generator.git;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.exceptions.JWTDecodeException;
+import io.fabric8.forge.generator.cache.Caches;
 import io.fabric8.forge.generator.keycloak.KeyCloakFailureException;
 import io.fabric8.forge.generator.keycloak.KeycloakEndpoint;
 import io.fabric8.forge.generator.keycloak.TokenHelper;
 import io.fabric8.forge.generator.kubernetes.Base64Helper;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
+import io.fabric8.forge.generator.kubernetes.UserIdentityResolver;
 import io.fabric8.kubernetes.api.model.DoneableSecret;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.api.model.SecretBuilder;
@@ -89,7 +91,7 @@ public class GitAccount {
     public static GitAccount loadGitDetailsFromSecret(Cache<String, GitAccount> cache, String secretName, UIContext uiContext) {
         KubernetesClient kubernetesClient = KubernetesClientHelper.createKubernetesClient(uiContext);
         final String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        return cache.computeIfAbsent(key, k -> {
+        return Caches.computeIfAbsent(cache, key, k -> {
             String namespace = KubernetesClientHelper.getUserSecretNamespace(kubernetesClient);
             GitAccount details = loadFromSecret(kubernetesClient, namespace, secretName);
             LOG.debug("Loaded details: " + details + " for cache key: " + key);
@@ -207,7 +209,7 @@ public class GitAccount {
         if (Strings.isNotBlank(username)) {
             return username;
         } else if (Strings.isNotBlank(token)) {
-            return "token/" + token;
+            return "token/" + UserIdentityResolver.hashToken(token);
         }
         throw new IllegalArgumentException("No cache key available for user: " + this);
     }
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The result of cloning a single repository
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class GitCloneStatusDTO {
+    private String repoName;
+    private boolean cloned;
+    private String message;
+    private long objects;
+    private long bytesOnDisk;
+
+    public GitCloneStatusDTO() {
+    }
+
+    public GitCloneStatusDTO(String repoName, boolean cloned, String message) {
+        this.repoName = repoName;
+        this.cloned = cloned;
+        this.message = message;
+    }
+
+    public static GitCloneStatusDTO cloned(String repoName, CloneStatistics statistics) {
+        GitCloneStatusDTO answer = new GitCloneStatusDTO(repoName, true, null);
+        if (statistics != null) {
+            answer.setObjects(statistics.getObjects());
+            answer.setBytesOnDisk(statistics.getBytesOnDisk());
+        }
+        return answer;
+    }
+
+    public static GitCloneStatusDTO failed(String repoName, String message) {
+        return new GitCloneStatusDTO(repoName, false, message);
+    }
+
+    @Override
+    public String toString() {
+        return "GitCloneStatusDTO{" +
+                "repoName='" + repoName + '\'' +
+                ", cloned=" + cloned +
+                ", message='" + message + '\'' +
+                ", objects=" + objects +
+                ", bytesOnDisk=" + bytesOnDisk +
+                '}';
+    }
+
+    public String getRepoName() {
+        return repoName;
+    }
+
+    public void setRepoName(String repoName) {
+        this.repoName = repoName;
+    }
+
+    public boolean isCloned() {
+        return cloned;
+    }
+
+    public void setCloned(boolean cloned) {
+        this.cloned = cloned;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public long getObjects() {
+        return objects;
+    }
+
+    public void setObjects(long objects) {
+        this.objects = objects;
+    }
+
+    public long getBytesOnDisk() {
+        return bytesOnDisk;
+    }
+
+    public void setBytesOnDisk(long bytesOnDisk) {
+        this.bytesOnDisk = bytesOnDisk;
+    }
+}
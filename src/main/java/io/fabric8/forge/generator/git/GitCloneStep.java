@@ -17,6 +17,8 @@
 package io.fabric8.forge.generator.git;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.utils.ParallelHelpers;
 import io.fabric8.utils.Strings;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -30,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,6 +41,8 @@ import java.util.Map;
 public abstract class GitCloneStep extends AbstractGitRepoStep {
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
 
+    public static final int CLONE_PARALLELISM = 4;
+
     public GitCloneStep(String accountsCacheKey, String organisationsCacheKey) {
         super(accountsCacheKey, organisationsCacheKey);
     }
@@ -77,24 +82,87 @@ public abstract class GitCloneStep extends AbstractGitRepoStep {
         }
 
         File tmpdir = Files.createTempDirectory("importdir").toFile();
-        List<GitClonedRepoDetails> clonedRepos = new ArrayList<>();
+        Map<String, CloneRepoAttributes> cloneAttributes = new LinkedHashMap<>();
         for (String gitRepoName : gitRepoNameList) {
-            File basedir = new File(tmpdir, gitRepoName);
-            CloneRepoAttributes attributes = createCloneRepoAttributes(gitOwnerName, gitRepoName, basedir);
+            CloneRepoAttributes attributes = createCloneRepoAttributes(gitOwnerName, gitRepoName, new File(tmpdir, gitRepoName));
+            attributes.setSingleBranch(isSingleBranchClone());
+            cloneAttributes.put(gitRepoName, attributes);
+        }
 
-            try {
-                LOG.info("Cloning repository " + attributes.getUri() + " into directory " + attributes.getRemote());
-                Git git = gitProvider.cloneRepo(attributes);
+        // the results are in the same order as the selected repositories whichever clone finishes first
+        List<GitClonedRepoDetails> results = ParallelHelpers.map("git-clone", gitRepoNameList, CLONE_PARALLELISM,
+                gitRepoName -> cloneRepo(gitProvider, gitRepoName, cloneAttributes.get(gitRepoName)));
 
-                GitClonedRepoDetails clonedRepo = new GitClonedRepoDetails(gitRepoName, git, attributes);
+        List<GitClonedRepoDetails> clonedRepos = new ArrayList<>();
+        List<GitCloneStatusDTO> statuses = new ArrayList<>();
+        List<String> clonedRepoNames = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        long totalObjects = 0;
+        long totalBytesOnDisk = 0;
+        for (int i = 0; i < gitRepoNameList.size(); i++) {
+            String gitRepoName = gitRepoNameList.get(i);
+            CloneRepoAttributes attributes = cloneAttributes.get(gitRepoName);
+            GitClonedRepoDetails clonedRepo = results.get(i);
+            if (clonedRepo != null) {
+                CloneStatistics statistics = attributes.getStatistics();
+                if (statistics != null) {
+                    totalObjects += statistics.getObjects();
+                    totalBytesOnDisk += statistics.getBytesOnDisk();
+                }
                 clonedRepos.add(clonedRepo);
-            } catch (GitAPIException e) {
-                removeTemporaryFiles(basedir);
-                return Results.fail("Failed to clone repository " + attributes.getUri() + " due to " + e, e);
+                clonedRepoNames.add(gitRepoName);
+                statuses.add(GitCloneStatusDTO.cloned(gitRepoName, statistics));
+            } else {
+                String failure = attributes.getFailure();
+                failures.add(gitRepoName + ": " + failure);
+                statuses.add(GitCloneStatusDTO.failed(gitRepoName, failure));
             }
         }
+        attributeMap.put(AttributeMapKeys.GIT_CLONE_STATUSES, statuses);
+        if (clonedRepos.isEmpty()) {
+            removeTemporaryFiles(tmpdir);
+            return Results.fail("Failed to clone repositories " + String.join(", ", failures));
+        }
         attributeMap.put(AttributeMapKeys.GIT_CLONED_REPOS, clonedRepos);
-        return Results.success();
+        if (gitRepoNames != null && !failures.isEmpty()) {
+            // lets only continue the import with the repositories we managed to clone; without the pattern the
+            // jenkins job is created from the remaining repository names
+            attributeMap.put(AttributeMapKeys.GIT_REPO_NAMES, clonedRepoNames);
+            attributeMap.remove(AttributeMapKeys.GIT_REPOSITORY_PATTERN);
+        }
+
+        String message = "Cloned " + clonedRepos.size() + " of " + gitRepoNameList.size() + " repositories fetching "
+                + totalObjects + " objects using " + totalBytesOnDisk + " bytes on disk";
+        if (!failures.isEmpty()) {
+            message += ". Failed to clone " + String.join(", ", failures);
+        }
+        LOG.info(message);
+        return Results.success(message, statuses);
+    }
+
+    /**
+     * Clones the repository returning null if it could not be cloned; the failure is recorded on the attributes
+     */
+    protected GitClonedRepoDetails cloneRepo(GitProvider gitProvider, String gitRepoName, CloneRepoAttributes attributes) {
+        File basedir = attributes.getDirectory();
+        try {
+            LOG.info("Cloning repository " + attributes.getUri() + " into directory " + basedir);
+            Git git = gitProvider.cloneRepo(attributes);
+            return new GitClonedRepoDetails(gitRepoName, git, attributes);
+        } catch (GitAPIException | RuntimeException e) {
+            LOG.warn("Failed to clone repository " + attributes.getUri() + ". " + e, e);
+            attributes.setFailure(e.getMessage() != null ? e.getMessage() : e.toString());
+            removeTemporaryFiles(basedir);
+            return null;
+        }
+    }
+
+    /**
+     * Imports only need the default branch so we avoid fetching all the other branches unless
+     * {@link EnvironmentVariables#GIT_CLONE_SINGLE_BRANCH} is set to <code>false</code>
+     */
+    protected boolean isSingleBranchClone() {
+        return !"false".equalsIgnoreCase(System.getenv(EnvironmentVariables.GIT_CLONE_SINGLE_BRANCH));
     }
 
     protected abstract CloneRepoAttributes createCloneRepoAttributes(String gitOwnerName, String gitRepoName, File dir);
@@ -18,6 +18,7 @@ package io.fabric8.forge.generator.git;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.utils.ParallelHelpers;
 import io.fabric8.project.support.UserDetails;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -30,6 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -39,6 +41,8 @@ import java.util.Map;
 public class GitCommitAndPushStep extends AbstractGitRepoStep {
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
 
+    public static final int PUSH_PARALLELISM = 4;
+
     public GitCommitAndPushStep() {
         super(CacheNames.GITHUB_ACCOUNT_FROM_SECRET, CacheNames.GITHUB_ORGANISATIONS);
     }
@@ -52,24 +56,65 @@ public class GitCommitAndPushStep extends AbstractGitRepoStep {
         Map<Object, Object> attributeMap = uiContext.getAttributeMap();
 
         List<GitClonedRepoDetails> clonedRepos = (List<GitClonedRepoDetails>) attributeMap.get(AttributeMapKeys.GIT_CLONED_REPOS);
-        if (clonedRepos != null) {
-            for (GitClonedRepoDetails clonedRepo : clonedRepos) {
-                Git git = clonedRepo.getGit();
-                String gitUrl = clonedRepo.getGitUrl();
-                UserDetails userDetails = clonedRepo.getUserDetails();
-                File basedir = clonedRepo.getDirectory();
-                String message = "Adding pipeline";
-                try {
-                    LOG.info("Performing a git commit and push on URI " + gitUrl);
-                    gitAddCommitAndPush(git, gitUrl, userDetails, basedir, message);
-                } catch (GitAPIException e) {
-                    return Results.fail("Failed to commit and push repository " + clonedRepo.getGitRepoName() + " due to " + e, e);
-                } finally {
-                    removeTemporaryFiles(basedir);
-                }
+        if (clonedRepos == null || clonedRepos.isEmpty()) {
+            return Results.success();
+        }
+        List<GitPushStatusDTO> statuses = ParallelHelpers.map("git-push", clonedRepos, PUSH_PARALLELISM, this::commitAndPush);
+
+        List<GitClonedRepoDetails> pushedRepos = new ArrayList<>();
+        List<String> pushedRepoNames = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < clonedRepos.size(); i++) {
+            GitClonedRepoDetails clonedRepo = clonedRepos.get(i);
+            GitPushStatusDTO status = statuses.get(i);
+            if (status.isPushed()) {
+                pushedRepos.add(clonedRepo);
+                pushedRepoNames.add(clonedRepo.getGitRepoName());
+            } else {
+                failures.add(clonedRepo.getGitRepoName() + ": " + status.getMessage());
+            }
+        }
+        attributeMap.put(AttributeMapKeys.GIT_PUSH_STATUSES, statuses);
+        if (pushedRepos.isEmpty()) {
+            return Results.fail("Failed to commit and push repositories " + String.join(", ", failures));
+        }
+        if (!failures.isEmpty()) {
+            // lets only create builds for the repositories which have a pushed Jenkinsfile
+            attributeMap.put(AttributeMapKeys.GIT_CLONED_REPOS, pushedRepos);
+            if (attributeMap.get(AttributeMapKeys.GIT_REPO_NAMES) != null) {
+                attributeMap.put(AttributeMapKeys.GIT_REPO_NAMES, pushedRepoNames);
             }
+            // the jenkins job pattern is then created from the pushed repository names
+            attributeMap.remove(AttributeMapKeys.GIT_REPOSITORY_PATTERN);
+        }
+        String message = "Pushed " + pushedRepos.size() + " of " + clonedRepos.size() + " repositories";
+        if (!failures.isEmpty()) {
+            message += ". Failed to push " + String.join(", ", failures);
+        }
+        LOG.info(message);
+        return Results.success(message, statuses);
+    }
+
+    protected GitPushStatusDTO commitAndPush(GitClonedRepoDetails clonedRepo) {
+        Git git = clonedRepo.getGit();
+        String gitUrl = clonedRepo.getGitUrl();
+        UserDetails userDetails = clonedRepo.getUserDetails();
+        File basedir = clonedRepo.getDirectory();
+        String message = "Adding pipeline";
+        long start = System.currentTimeMillis();
+        GitPushStatusDTO answer;
+        try {
+            LOG.info("Performing a git commit and push on URI " + gitUrl);
+            gitAddCommitAndPush(git, gitUrl, userDetails, basedir, message);
+            answer = GitPushStatusDTO.pushed(clonedRepo.getGitRepoName());
+        } catch (GitAPIException | RuntimeException e) {
+            LOG.warn("Failed to commit and push repository " + clonedRepo.getGitRepoName() + ". " + e, e);
+            answer = GitPushStatusDTO.failed(clonedRepo.getGitRepoName(), e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            removeTemporaryFiles(basedir);
         }
-        return Results.success();
+        answer.setElapsedMillis(System.currentTimeMillis() - start);
+        return answer;
     }
 
 }
@@ -0,0 +1,529 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.cache.CacheMetrics;
+import io.fabric8.forge.generator.cache.Caches;
+import io.fabric8.forge.generator.kubernetes.UserIdentityResolver;
+import io.fabric8.utils.Strings;
+import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ProgressMonitor;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A bounded on disk cache of bare mirrors of the public git repositories we clone often, such as the Jenkinsfile
+ * library or repositories which are imported repeatedly.
+ * <p>
+ * A repository is only mirrored once it has been cloned {@link #DEFAULT_MIN_CLONES} times within
+ * {@link #DEFAULT_CLONE_WINDOW_SECONDS} or if it was registered via {@link #alwaysMirror(String)}; the mirror is then
+ * created in the background and clones go straight to the remote until it is ready, so one off clones keep the
+ * savings of a single branch clone and never wait for an anonymous fetch of a private repository to fail.
+ * <p>
+ * Mirrors are only ever created and fetched anonymously so that a mirror never contains anything a user could not
+ * fetch themselves. Clones are made from the local mirror and then fetched from the real remote with the users
+ * credentials so they are always up to date; a mirror older than the refresh interval is fetched in the background.
+ * When the mirrors use more than the disk budget the least recently used ones are removed.
+ * <p>
+ * Mirrors created are recorded as misses and clones served from a mirror as hits in the {@link CacheMetrics}
+ * called {@link #METRICS_NAME}.
+ */
+public class GitMirrorCache {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitMirrorCache.class);
+
+    public static final String METRICS_NAME = "git-mirrors";
+    public static final int DEFAULT_SIZE_MB = 1024;
+    public static final int DEFAULT_REFRESH_SECONDS = 300;
+    public static final int DEFAULT_MIN_CLONES = 3;
+    public static final int DEFAULT_CLONE_WINDOW_SECONDS = 3600;
+
+    private static final String MIRROR_SUFFIX = ".git";
+    private static final String FETCHED_MARKER = "fabric8-mirror-fetched";
+    private static final RefSpec[] MIRROR_REFSPECS = {
+            new RefSpec("+refs/heads/*:refs/heads/*"),
+            new RefSpec("+refs/tags/*:refs/tags/*")
+    };
+
+    private static GitMirrorCache instance;
+
+    private final File directory;
+    private final long maxBytes;
+    private final long refreshMillis;
+    private final int minClones;
+    private final long cloneWindowMillis;
+    private final Map<String, MirrorState> mirrors = new ConcurrentHashMap<>();
+    private final Set<String> alwaysMirrored = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> unavailableUntil = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "git-mirror-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final CacheMetrics metrics = Caches.metrics(METRICS_NAME);
+
+    public GitMirrorCache(File directory, long maxBytes, long refreshMillis) {
+        this(directory, maxBytes, refreshMillis, DEFAULT_MIN_CLONES, DEFAULT_CLONE_WINDOW_SECONDS * 1000L);
+    }
+
+    public GitMirrorCache(File directory, long maxBytes, long refreshMillis, int minClones, long cloneWindowMillis) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.refreshMillis = refreshMillis;
+        this.minClones = minClones;
+        this.cloneWindowMillis = cloneWindowMillis;
+    }
+
+    /**
+     * Returns the shared cache configured via the {@link EnvironmentVariables#GIT_MIRROR_CACHE_DIR},
+     * {@link EnvironmentVariables#GIT_MIRROR_CACHE_SIZE_MB}, {@link EnvironmentVariables#GIT_MIRROR_REFRESH_SECONDS}
+     * and {@link EnvironmentVariables#GIT_MIRROR_MIN_CLONES} environment variables; a size of zero disables the mirrors
+     */
+    public static synchronized GitMirrorCache getInstance() {
+        if (instance == null) {
+            long sizeMb = parseEnvVar(EnvironmentVariables.GIT_MIRROR_CACHE_SIZE_MB, DEFAULT_SIZE_MB);
+            long refreshSeconds = parseEnvVar(EnvironmentVariables.GIT_MIRROR_REFRESH_SECONDS, DEFAULT_REFRESH_SECONDS);
+            long minClones = parseEnvVar(EnvironmentVariables.GIT_MIRROR_MIN_CLONES, DEFAULT_MIN_CLONES);
+            String dir = System.getenv(EnvironmentVariables.GIT_MIRROR_CACHE_DIR);
+            if (Strings.isNullOrBlank(dir)) {
+                dir = new File(System.getProperty("java.io.tmpdir"), "git-mirror-cache").getPath();
+            }
+            instance = new GitMirrorCache(new File(dir), Math.max(0, sizeMb) * 1024L * 1024L, Math.max(0, refreshSeconds) * 1000L,
+                    (int) Math.max(1, minClones), DEFAULT_CLONE_WINDOW_SECONDS * 1000L);
+            LOG.info("Using " + instance);
+        }
+        return instance;
+    }
+
+    private static long parseEnvVar(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (Strings.isNotBlank(value)) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn("Invalid value of $" + name + " " + value + ". " + e, e);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Returns true if the repository could be mirrored; we can only fetch anonymously over http
+     */
+    public static boolean isMirrorable(String uri) {
+        if (uri == null || !(uri.startsWith("https://") || uri.startsWith("http://"))) {
+            return false;
+        }
+        int hostStart = uri.indexOf("://") + 3;
+        int pathStart = uri.indexOf('/', hostStart);
+        String authority = pathStart > 0 ? uri.substring(hostStart, pathStart) : uri.substring(hostStart);
+        return !authority.contains("@");
+    }
+
+    @Override
+    public String toString() {
+        return "GitMirrorCache{" +
+                "directory=" + directory +
+                ", maxBytes=" + maxBytes +
+                ", refreshMillis=" + refreshMillis +
+                ", minClones=" + minClones +
+                '}';
+    }
+
+    /**
+     * Mirrors the given repository as soon as it is cloned rather than waiting until it has been cloned often, for
+     * repositories we know are cloned all the time such as the Jenkinsfile library
+     */
+    public void alwaysMirror(String uri) {
+        if (isMirrorable(uri)) {
+            alwaysMirrored.add(mirrorKey(uri));
+        }
+    }
+
+    /**
+     * Clones the repository from a local mirror if it can be mirrored then fetches anything newer from the remote;
+     * otherwise or if cloning from the mirror fails the repository is cloned from the remote.
+     *
+     * @param uri             the URI of the remote repository
+     * @param directory       the directory to clone into
+     * @param remote          the name of the remote
+     * @param cloneCommand    creates the clone command for the given URI
+     * @param fetchConfigurer configures the credentials of the fetch from the remote
+     * @param refSpecs        the refspecs to fetch from the remote or empty to use the configured refspecs
+     * @param monitor         the monitor of the fetch from the remote or the clone if it was not mirrored
+     */
+    public Git cloneRepository(String uri, File directory, String remote, Function<String, CloneCommand> cloneCommand,
+                               Consumer<FetchCommand> fetchConfigurer, List<RefSpec> refSpecs, ProgressMonitor monitor) throws GitAPIException {
+        Mirror mirror = acquire(uri);
+        if (mirror != null) {
+            try {
+                Git git = cloneCommand.apply(mirror.getUri()).call();
+                if (monitor instanceof CloneStatistics) {
+                    ((CloneStatistics) monitor).mirrored(git.getRepository().getDirectory());
+                }
+                mirror.fetchFromRemote(git, remote, uri, fetchConfigurer, refSpecs, monitor);
+                return git;
+            } catch (GitAPIException | JGitInternalException e) {
+                LOG.warn("Failed to clone " + uri + " via the mirror " + mirror.getUri() + " so cloning from the remote. " + e, e);
+                deleteDirectory(directory);
+            } finally {
+                mirror.close();
+            }
+        }
+        CloneCommand command = cloneCommand.apply(uri);
+        if (monitor != null) {
+            command.setProgressMonitor(monitor);
+        }
+        return command.call();
+    }
+
+    /**
+     * Returns the up to date mirror of the repository which must be closed after use or null if it is not mirrored
+     * yet, in which case the mirror is created in the background if the repository is cloned often enough
+     */
+    public Mirror acquire(String uri) {
+        if (maxBytes <= 0 || !isMirrorable(uri)) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Long until = unavailableUntil.get(uri);
+        if (until != null) {
+            if (until > now) {
+                return null;
+            }
+            unavailableUntil.remove(uri);
+        }
+        String key = mirrorKey(uri);
+        MirrorState state = getMirrorState(key);
+        if (!state.isFetched()) {
+            int clones = state.countClone(now, cloneWindowMillis);
+            if (clones >= minClones || alwaysMirrored.contains(key)) {
+                createInBackground(state, uri);
+            }
+            return null;
+        }
+        metrics.recordHit();
+        refreshIfStale(state, uri);
+        state.lock.readLock().lock();
+        if (!state.isFetched()) {
+            // it was evicted in the meantime
+            state.lock.readLock().unlock();
+            return null;
+        }
+        state.directory.setLastModified(System.currentTimeMillis());
+        return new Mirror(state.directory, state.lock);
+    }
+
+    /**
+     * Creates the mirror on the refresh thread so that the clone which asked for it does not wait
+     */
+    protected void createInBackground(MirrorState state, String uri) {
+        if (!state.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            state.lock.writeLock().lock();
+            try {
+                if (!state.isFetched()) {
+                    metrics.recordMiss();
+                    long start = System.nanoTime();
+                    try {
+                        fetchMirror(state.directory, uri);
+                        metrics.recordLoad(System.nanoTime() - start);
+                        LOG.info("Created the mirror of " + uri + " in " + state.directory);
+                    } catch (Exception e) {
+                        metrics.recordLoadFailure(System.nanoTime() - start);
+                        LOG.info("Not mirroring " + uri + " as it could not be fetched anonymously. " + e);
+                        unavailableUntil.put(uri, System.currentTimeMillis() + Math.max(refreshMillis, cloneWindowMillis));
+                        deleteDirectory(state.directory);
+                        return;
+                    }
+                }
+            } finally {
+                state.lock.writeLock().unlock();
+                state.refreshing.set(false);
+            }
+            evictIfNeeded(state);
+        });
+    }
+
+    protected String mirrorKey(String uri) {
+        String name = uri.replaceFirst("/+$", "").replaceFirst("\\.git$", "");
+        name = name.substring(name.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9_.-]", "_");
+        return name + "-" + UserIdentityResolver.hashToken(uri).substring(0, 16);
+    }
+
+    private MirrorState getMirrorState(String key) {
+        return mirrors.computeIfAbsent(key, k -> new MirrorState(new File(directory, k + MIRROR_SUFFIX)));
+    }
+
+    protected void refreshIfStale(MirrorState state, String uri) {
+        if (System.currentTimeMillis() - state.getLastFetched() < refreshMillis || !state.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            // fetching only adds new packs and then updates the refs so clones can carry on reading the mirror
+            state.lock.readLock().lock();
+            long start = System.nanoTime();
+            try {
+                if (state.isFetched()) {
+                    fetchMirror(state.directory, uri);
+                    metrics.recordRefresh(System.nanoTime() - start);
+                }
+            } catch (Exception e) {
+                metrics.recordRefreshFailure(System.nanoTime() - start);
+                LOG.warn("Failed to refresh the mirror of " + uri + ". " + e, e);
+            } finally {
+                state.lock.readLock().unlock();
+                state.refreshing.set(false);
+            }
+            evictIfNeeded(state);
+        });
+    }
+
+    /**
+     * Creates or updates the bare mirror of the repository anonymously
+     */
+    protected void fetchMirror(File mirrorDir, String uri) throws GitAPIException, IOException {
+        Git git = new File(mirrorDir, Constants.CONFIG).isFile() ? Git.open(mirrorDir) : Git.init().setBare(true).setDirectory(mirrorDir).call();
+        try {
+            Repository repository = git.getRepository();
+            StoredConfig config = repository.getConfig();
+            config.setString("remote", Constants.DEFAULT_REMOTE_NAME, "url", uri);
+            config.setStringList("remote", Constants.DEFAULT_REMOTE_NAME, "fetch", Arrays.asList(MIRROR_REFSPECS[0].toString(), MIRROR_REFSPECS[1].toString()));
+            config.save();
+
+            FetchResult result = git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(MIRROR_REFSPECS)
+                    .setRemoveDeletedRefs(true).setTagOpt(TagOpt.FETCH_TAGS).call();
+            String defaultBranch = findDefaultBranch(result);
+            if (defaultBranch != null) {
+                RefUpdate update = repository.updateRef(Constants.HEAD);
+                update.link(defaultBranch);
+            }
+        } finally {
+            git.close();
+        }
+        File marker = new File(mirrorDir, FETCHED_MARKER);
+        if (!marker.createNewFile()) {
+            marker.setLastModified(System.currentTimeMillis());
+        }
+    }
+
+    private static String findDefaultBranch(FetchResult result) {
+        Ref head = result.getAdvertisedRef(Constants.HEAD);
+        if (head == null) {
+            return null;
+        }
+        if (head.isSymbolic()) {
+            return head.getTarget().getName();
+        }
+        ObjectId headId = head.getObjectId();
+        Ref master = result.getAdvertisedRef(Constants.R_HEADS + Constants.MASTER);
+        if (master != null && master.getObjectId().equals(headId)) {
+            return master.getName();
+        }
+        for (Ref ref : result.getAdvertisedRefs()) {
+            if (ref.getName().startsWith(Constants.R_HEADS) && ref.getObjectId().equals(headId)) {
+                return ref.getName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the least recently used mirrors until they fit in the disk budget; mirrors which are in use are skipped
+     */
+    protected void evictIfNeeded(MirrorState current) {
+        File[] dirs = directory.listFiles(file -> file.isDirectory() && file.getName().endsWith(MIRROR_SUFFIX));
+        if (dirs == null) {
+            return;
+        }
+        List<File> candidates = new ArrayList<>(Arrays.asList(dirs));
+        Map<File, Long> sizes = new HashMap<>();
+        long total = 0;
+        for (File dir : candidates) {
+            long size = CloneStatistics.directorySize(dir);
+            sizes.put(dir, size);
+            total += size;
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        candidates.sort(Comparator.comparingLong(File::lastModified));
+        for (File dir : candidates) {
+            if (total <= maxBytes) {
+                break;
+            }
+            String name = dir.getName();
+            MirrorState state = getMirrorState(name.substring(0, name.length() - MIRROR_SUFFIX.length()));
+            if (state == current || !state.lock.writeLock().tryLock()) {
+                continue;
+            }
+            try {
+                LOG.info("Removing the least recently used mirror " + dir + " as the mirrors use " + total + " bytes");
+                deleteDirectory(dir);
+                total -= sizes.get(dir);
+            } finally {
+                state.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    protected static void deleteDirectory(File dir) {
+        if (!dir.exists()) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete " + dir + ". " + e, e);
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static class MirrorState {
+        private final File directory;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private long windowStart;
+        private int clones;
+
+        MirrorState(File directory) {
+            this.directory = directory;
+        }
+
+        boolean isFetched() {
+            return new File(directory, FETCHED_MARKER).isFile();
+        }
+
+        long getLastFetched() {
+            return new File(directory, FETCHED_MARKER).lastModified();
+        }
+
+        /**
+         * Records a clone of the repository returning the number of clones in the current window
+         */
+        synchronized int countClone(long now, long windowMillis) {
+            if (now - windowStart > windowMillis) {
+                windowStart = now;
+                clones = 0;
+            }
+            return ++clones;
+        }
+    }
+
+    /**
+     * A mirror which is protected from eviction until it is closed
+     */
+    public static class Mirror implements AutoCloseable {
+        private final File directory;
+        private final ReadWriteLock lock;
+
+        Mirror(File directory, ReadWriteLock lock) {
+            this.directory = directory;
+            this.lock = lock;
+        }
+
+        public String getUri() {
+            return directory.getAbsolutePath();
+        }
+
+        /**
+         * Points the remote of a repository cloned from this mirror back at the real remote then fetches anything
+         * newer than the mirror, moving the checked out branch to the latest commit of the remote
+         */
+        public void fetchFromRemote(Git git, String remote, String uri, Consumer<FetchCommand> fetchConfigurer,
+                                    List<RefSpec> refSpecs, ProgressMonitor monitor) throws GitAPIException {
+            try {
+                Repository repository = git.getRepository();
+                StoredConfig config = repository.getConfig();
+                config.setString("remote", remote, "url", uri);
+                config.save();
+
+                FetchCommand fetch = git.fetch().setRemote(remote);
+                if (!refSpecs.isEmpty()) {
+                    fetch.setRefSpecs(refSpecs);
+                }
+                if (monitor != null) {
+                    fetch.setProgressMonitor(monitor);
+                }
+                fetchConfigurer.accept(fetch);
+                fetch.call();
+
+                String branch = repository.getBranch();
+                Ref remoteBranch = repository.exactRef(Constants.R_REMOTES + remote + "/" + branch);
+                ObjectId head = repository.resolve(Constants.HEAD);
+                if (remoteBranch != null && !remoteBranch.getObjectId().equals(head)) {
+                    git.reset().setMode(ResetCommand.ResetType.HARD).setRef(remoteBranch.getName()).call();
+                }
+            } catch (IOException e) {
+                throw new JGitInternalException("Failed to update " + git.getRepository().getDirectory() + " from " + uri + ". " + e, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import io.fabric8.utils.Strings;
 import org.kohsuke.github.GHOrganization;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.URL;
 import java.util.Objects;
 
@@ -31,7 +32,7 @@ import static io.fabric8.forge.generator.utils.StringHelpers.createdAtText;
  * Represents a github organisation you can pick
  */
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
-public class GitOrganisationDTO implements Comparable<GitOrganisationDTO> {
+public class GitOrganisationDTO implements Comparable<GitOrganisationDTO>, Serializable {
     private String id;
     private String name;
     private String description;
@@ -20,28 +20,40 @@ import io.fabric8.forge.generator.Configuration;
 import io.fabric8.forge.generator.github.GitHubProvider;
 import io.fabric8.forge.generator.gogs.GogsProvider;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
+import io.fabric8.forge.generator.utils.ParallelHelpers;
 import io.fabric8.kubernetes.api.ServiceNames;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.project.support.GitUtils;
 import io.fabric8.project.support.UserDetails;
+import io.fabric8.utils.Strings;
 import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.LsRemoteCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.RefSpec;
 import org.jboss.forge.addon.ui.result.navigation.NavigationResultBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  */
 public abstract class GitProvider {
     private static final transient Logger LOG = LoggerFactory.getLogger(GitProvider.class);
 
+    public static final int WEBHOOK_PARALLELISM = 4;
+
     private final String name;
 
     public GitProvider(String name) {
@@ -125,20 +137,99 @@ public abstract class GitProvider {
 
     public abstract void registerWebHook(GitAccount details, WebHookDetails webhook) throws IOException;
 
+    /**
+     * Registers the given webhooks with at most {@link #WEBHOOK_PARALLELISM} concurrent registrations, returning the
+     * result of each one in the same order as the webhooks
+     */
+    public List<WebHookStatusDTO> registerWebHooks(GitAccount details, List<WebHookDetails> webhooks) {
+        return ParallelHelpers.map("register-webhook", webhooks, WEBHOOK_PARALLELISM, webhook -> registerWebHookStatus(details, webhook));
+    }
+
+    protected WebHookStatusDTO registerWebHookStatus(GitAccount details, WebHookDetails webhook) {
+        String repoName = webhook.getRepositoryName();
+        try {
+            registerWebHook(details, webhook);
+            return WebHookStatusDTO.registered(repoName);
+        } catch (Exception e) {
+            LOG.warn("Failed to create CI webhooks for: " + repoName + ". " + e, e);
+            return WebHookStatusDTO.failed(repoName, "Failed to create CI webhooks for: " + repoName + ": " + e);
+        }
+    }
+
     public Git cloneRepo(CloneRepoAttributes attributes) throws GitAPIException {
-        CloneCommand command = Git.cloneRepository();
         String gitUri = attributes.getUri();
+        String remote = attributes.getRemote();
 
         UserDetails userDetails = attributes.getUserDetails();
         CredentialsProvider credentialsProvider = userDetails.createCredentialsProvider();
-        GitUtils.configureCommand(command, credentialsProvider, userDetails.getSshPrivateKey(), userDetails.getSshPublicKey());
+        CloneStatistics statistics = new CloneStatistics();
+
+        String branchRef = null;
+        List<RefSpec> refSpecs = new ArrayList<>();
+        if (attributes.isSingleBranch()) {
+            String branch = attributes.getBranch();
+            if (Strings.isNullOrBlank(branch)) {
+                branch = findDefaultBranch(gitUri, userDetails, credentialsProvider);
+            }
+            branchRef = branch.startsWith(Constants.R_HEADS) ? branch : Constants.R_HEADS + branch;
+            String branchName = Repository.shortenRefName(branchRef);
+            statistics.setBranch(branchName);
+            refSpecs.add(new RefSpec("+" + branchRef + ":" + Constants.R_REMOTES + remote + "/" + branchName));
+        }
+        String cloneBranchRef = branchRef;
+
+        Git git = GitMirrorCache.getInstance().cloneRepository(gitUri, attributes.getDirectory(), remote, uri -> {
+            CloneCommand command = Git.cloneRepository();
+            GitUtils.configureCommand(command, credentialsProvider, userDetails.getSshPrivateKey(), userDetails.getSshPublicKey());
+            command = command.setCredentialsProvider(credentialsProvider).
+                    setURI(uri).
+                    setDirectory(attributes.getDirectory()).setRemote(remote);
+            if (cloneBranchRef != null) {
+                command = command.setCloneAllBranches(false).
+                        setBranchesToClone(Collections.singletonList(cloneBranchRef)).
+                        setBranch(cloneBranchRef);
+            } else {
+                command = command.setCloneAllBranches(attributes.isCloneAll());
+            }
+            return command;
+        }, fetch -> {
+            GitUtils.configureCommand(fetch, credentialsProvider, userDetails.getSshPrivateKey(), userDetails.getSshPublicKey());
+            fetch.setCredentialsProvider(credentialsProvider);
+        }, refSpecs, statistics);
+
+        statistics.completed(git.getRepository().getDirectory());
+        attributes.setStatistics(statistics);
+        LOG.info("Cloned " + gitUri + " " + statistics);
+        return git;
+    }
 
-        command = command.setCredentialsProvider(credentialsProvider).
-                setCloneAllBranches(attributes.isCloneAll()).
-                setURI(gitUri).
-                setDirectory(attributes.getDirectory()).setRemote(attributes.getRemote());
+    /**
+     * Returns the default branch of the remote repository; the branch that HEAD points to
+     */
+    protected String findDefaultBranch(String gitUri, UserDetails userDetails, CredentialsProvider credentialsProvider) throws GitAPIException {
+        LsRemoteCommand command = Git.lsRemoteRepository();
+        GitUtils.configureCommand(command, credentialsProvider, userDetails.getSshPrivateKey(), userDetails.getSshPublicKey());
+        Map<String, Ref> refs = command.setCredentialsProvider(credentialsProvider).setRemote(gitUri).callAsMap();
 
-        return command.call();
+        Ref head = refs.get(Constants.HEAD);
+        if (head != null) {
+            if (head.isSymbolic()) {
+                return head.getTarget().getName();
+            }
+            // the server did not advertise the symref so lets find a branch with the same commit
+            ObjectId headId = head.getObjectId();
+            String master = Constants.R_HEADS + Constants.MASTER;
+            Ref masterRef = refs.get(master);
+            if (masterRef != null && headId != null && headId.equals(masterRef.getObjectId())) {
+                return master;
+            }
+            for (Ref ref : refs.values()) {
+                if (ref.getName().startsWith(Constants.R_HEADS) && headId != null && headId.equals(ref.getObjectId())) {
+                    return ref.getName();
+                }
+            }
+        }
+        return Constants.R_HEADS + Constants.MASTER;
     }
 
     public abstract void addGitCloneStep(NavigationResultBuilder builder);
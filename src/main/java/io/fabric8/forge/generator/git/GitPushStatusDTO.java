@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The result of committing and pushing a single repository
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class GitPushStatusDTO {
+    private String repoName;
+    private boolean pushed;
+    private String message;
+    private long elapsedMillis;
+
+    public GitPushStatusDTO() {
+    }
+
+    public GitPushStatusDTO(String repoName, boolean pushed, String message) {
+        this.repoName = repoName;
+        this.pushed = pushed;
+        this.message = message;
+    }
+
+    public static GitPushStatusDTO pushed(String repoName) {
+        return new GitPushStatusDTO(repoName, true, null);
+    }
+
+    public static GitPushStatusDTO failed(String repoName, String message) {
+        return new GitPushStatusDTO(repoName, false, message);
+    }
+
+    @Override
+    public String toString() {
+        return "GitPushStatusDTO{" +
+                "repoName='" + repoName + '\'' +
+                ", pushed=" + pushed +
+                ", message='" + message + '\'' +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+
+    public String getRepoName() {
+        return repoName;
+    }
+
+    public void setRepoName(String repoName) {
+        this.repoName = repoName;
+    }
+
+    public boolean isPushed() {
+        return pushed;
+    }
+
+    public void setPushed(boolean pushed) {
+        this.pushed = pushed;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -22,6 +22,7 @@ import org.kohsuke.github.GHOrganization;
 import org.kohsuke.github.GHRepository;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -32,7 +33,7 @@ import static io.fabric8.forge.generator.utils.StringHelpers.createdAtText;
  * Represents a github repository you can pick
  */
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
-public class GitRepositoryDTO implements Comparable<GitRepositoryDTO> {
+public class GitRepositoryDTO implements Comparable<GitRepositoryDTO>, Serializable {
     private String id;
     private String name;
     private String description;
@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+/**
+ * A compact immutable list of the repositories of an organisation, sorted by name.
+ * <p>
+ * Rather than holding a {@link GitRepositoryDTO} per repository the ids, names and descriptions are packed into a
+ * single UTF-8 byte array with an array of offsets; the DTOs are only created when iterating. Listings with the
+ * same content are interned so that users of the same organisation share a single copy; the interned listings are
+ * striped by hash so that concurrent lookups of different organisations don't contend on a single lock.
+ */
+public final class GitRepositoryListing extends AbstractCollection<GitRepositoryDTO> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int INTERN_STRIPES = 16;
+    private static final List<Map<GitRepositoryListing, WeakReference<GitRepositoryListing>>> interned = new ArrayList<>();
+    private static final GitRepositoryListing EMPTY = new GitRepositoryListing(new byte[0], new int[]{0}, new BitSet(), new BitSet());
+
+    static {
+        for (int i = 0; i < INTERN_STRIPES; i++) {
+            interned.add(new WeakHashMap<>());
+        }
+    }
+
+    private static final int FIELDS = 3;
+
+    /**
+     * The UTF-8 encoded id, name and description of each repository
+     */
+    private final byte[] data;
+    /**
+     * The start offset of each field in the data with a final entry for the end of the data
+     */
+    private final int[] offsets;
+    /**
+     * The repositories whose name is the same as their id so the name is not stored
+     */
+    private final BitSet nameIsId;
+    /**
+     * The fields which are null rather than empty
+     */
+    private final BitSet nullFields;
+    private transient int hash;
+
+    private GitRepositoryListing(byte[] data, int[] offsets, BitSet nameIsId, BitSet nullFields) {
+        this.data = data;
+        this.offsets = offsets;
+        this.nameIsId = nameIsId;
+        this.nullFields = nullFields;
+    }
+
+    /**
+     * Returns the listing of the given repositories which are sorted and have duplicate names removed in the same
+     * way as a {@link TreeSet}
+     */
+    public static GitRepositoryListing of(Collection<GitRepositoryDTO> repositories) {
+        if (repositories instanceof GitRepositoryListing) {
+            return (GitRepositoryListing) repositories;
+        }
+        if (repositories == null || repositories.isEmpty()) {
+            return EMPTY;
+        }
+        SortedSet<GitRepositoryDTO> sorted = new TreeSet<>(repositories);
+        byte[][] fields = new byte[sorted.size() * FIELDS][];
+        BitSet nameIsId = new BitSet(sorted.size());
+        BitSet nullFields = new BitSet();
+        int length = 0;
+        int index = 0;
+        for (GitRepositoryDTO repository : sorted) {
+            int row = index / FIELDS;
+            fields[index] = encode(repository.getId(), nullFields, index);
+            index++;
+            if (Objects.equals(repository.getId(), repository.getName())) {
+                nameIsId.set(row);
+                fields[index++] = new byte[0];
+            } else {
+                fields[index] = encode(repository.getName(), nullFields, index);
+                index++;
+            }
+            fields[index] = encode(repository.getDescription(), nullFields, index);
+            index++;
+        }
+        for (byte[] field : fields) {
+            length += field.length;
+        }
+        byte[] data = new byte[length];
+        int[] offsets = new int[fields.length + 1];
+        int offset = 0;
+        for (int i = 0; i < fields.length; i++) {
+            offsets[i] = offset;
+            System.arraycopy(fields[i], 0, data, offset, fields[i].length);
+            offset += fields[i].length;
+        }
+        offsets[fields.length] = offset;
+        return intern(new GitRepositoryListing(data, offsets, nameIsId, nullFields));
+    }
+
+    protected static GitRepositoryListing intern(GitRepositoryListing listing) {
+        Map<GitRepositoryListing, WeakReference<GitRepositoryListing>> stripe = interned.get((listing.hashCode() & Integer.MAX_VALUE) % INTERN_STRIPES);
+        synchronized (stripe) {
+            WeakReference<GitRepositoryListing> ref = stripe.get(listing);
+            GitRepositoryListing answer = ref != null ? ref.get() : null;
+            if (answer == null) {
+                stripe.put(listing, new WeakReference<>(listing));
+                answer = listing;
+            }
+            return answer;
+        }
+    }
+
+    /**
+     * Returns a listing which also contains the given repository
+     */
+    public GitRepositoryListing with(GitRepositoryDTO repository) {
+        TreeSet<GitRepositoryDTO> answer = new TreeSet<>(this);
+        answer.add(repository);
+        return of(answer);
+    }
+
+    @Override
+    public int size() {
+        return (offsets.length - 1) / FIELDS;
+    }
+
+    public GitRepositoryDTO get(int index) {
+        GitRepositoryDTO answer = new GitRepositoryDTO();
+        answer.setId(getId(index));
+        answer.setName(getName(index));
+        answer.setDescription(getDescription(index));
+        return answer;
+    }
+
+    public String getId(int index) {
+        return field(index, 0);
+    }
+
+    public String getName(int index) {
+        return nameIsId.get(index) ? getId(index) : field(index, 1);
+    }
+
+    public String getDescription(int index) {
+        return field(index, 2);
+    }
+
+    /**
+     * Returns the number of bytes used to store the repository details
+     */
+    public int getPackedSize() {
+        return data.length;
+    }
+
+    @Override
+    public Iterator<GitRepositoryDTO> iterator() {
+        return new Iterator<GitRepositoryDTO>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public GitRepositoryDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        GitRepositoryListing that = (GitRepositoryListing) o;
+        return Arrays.equals(data, that.data) && Arrays.equals(offsets, that.offsets) && nameIsId.equals(that.nameIsId)
+                && Objects.equals(nullFields, that.nullFields);
+    }
+
+    @Override
+    public int hashCode() {
+        int answer = hash;
+        if (answer == 0) {
+            answer = 31 * Arrays.hashCode(data) + Arrays.hashCode(offsets);
+            hash = answer;
+        }
+        return answer;
+    }
+
+    /**
+     * Lets share the listings which are deserialized, such as from the cache store or another pod
+     */
+    private Object readResolve() {
+        return intern(this);
+    }
+
+    private String field(int index, int field) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int i = index * FIELDS + field;
+        int start = offsets[i];
+        int length = offsets[i + 1] - start;
+        if (length == 0) {
+            if (nullFields == null) {
+                // listings stored before we kept track of null fields
+                return field == 0 ? "" : null;
+            }
+            return nullFields.get(i) ? null : "";
+        }
+        return new String(data, start, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(String text, BitSet nullFields, int index) {
+        if (text == null) {
+            nullFields.set(index);
+            return new byte[0];
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
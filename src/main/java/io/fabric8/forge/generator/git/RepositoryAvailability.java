@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import io.fabric8.forge.generator.cache.Caches;
+import org.infinispan.Cache;
+
+import java.util.function.Supplier;
+
+/**
+ * Remembers for a short time whether a repository exists so that validating the repository name on each change of
+ * the wizard fields does not look it up each time; concurrent validations of the same name share one lookup
+ */
+public class RepositoryAvailability {
+    public static final String GITHUB = "github";
+    public static final String GOGS = "gogs";
+
+    private final Cache<String, Boolean> cache;
+    private final String provider;
+    private final String userCacheKey;
+
+    public RepositoryAvailability(Cache<String, Boolean> cache, String provider, String userCacheKey) {
+        this.cache = cache;
+        this.provider = provider;
+        this.userCacheKey = userCacheKey;
+    }
+
+    public static String cacheKey(String provider, String userCacheKey, String org, String repoName) {
+        return provider + "/" + userCacheKey + "/" + org + "/" + repoName;
+    }
+
+    /**
+     * Returns whether the repository exists using the given lookup if its not cached; the lookup should return null
+     * if it could not tell in which case nothing is cached
+     */
+    public Boolean repositoryExists(String org, String repoName, Supplier<Boolean> lookup) {
+        return Caches.computeIfAbsent(cache, cacheKey(provider, userCacheKey, org, repoName), key -> lookup.get());
+    }
+
+    /**
+     * Removes the cached result such as after we've created the repository
+     */
+    public void invalidate(String org, String repoName) {
+        cache.remove(cacheKey(provider, userCacheKey, org, repoName));
+    }
+}
@@ -18,6 +18,7 @@ package io.fabric8.forge.generator.git;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Date;
 
 /**
  */
@@ -26,6 +27,7 @@ public class WebHookDetails {
     private final String webhookUrl;
     private final String secret;
     private String gitOwnerName;
+    private Date secretUpdated;
 
     public WebHookDetails(String gitOwnerName, String repositoryName, String webhookUrl, String secret) {
         this.gitOwnerName = gitOwnerName;
@@ -67,4 +69,15 @@ public class WebHookDetails {
     public void setGitOwnerName(String gitOwnerName) {
         this.gitOwnerName = gitOwnerName;
     }
+
+    /**
+     * Returns when the secret was created or last changed or null if we don't know
+     */
+    public Date getSecretUpdated() {
+        return secretUpdated;
+    }
+
+    public void setSecretUpdated(Date secretUpdated) {
+        this.secretUpdated = secretUpdated;
+    }
 }
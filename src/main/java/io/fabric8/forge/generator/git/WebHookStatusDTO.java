@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The result of registering the webhook of a single repository
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class WebHookStatusDTO {
+    private String repoName;
+    private boolean registered;
+    private String message;
+    private WebHookAction action;
+
+    public WebHookStatusDTO() {
+    }
+
+    public WebHookStatusDTO(String repoName, boolean registered, String message) {
+        this.repoName = repoName;
+        this.registered = registered;
+        this.message = message;
+    }
+
+    public static WebHookStatusDTO registered(String repoName) {
+        return new WebHookStatusDTO(repoName, true, null);
+    }
+
+    public static WebHookStatusDTO registered(String repoName, WebHookAction action) {
+        WebHookStatusDTO answer = registered(repoName);
+        answer.setAction(action);
+        return answer;
+    }
+
+    public static WebHookStatusDTO failed(String repoName, String message) {
+        return new WebHookStatusDTO(repoName, false, message);
+    }
+
+    @Override
+    public String toString() {
+        return "WebHookStatusDTO{" +
+                "repoName='" + repoName + '\'' +
+                ", registered=" + registered +
+                ", message='" + message + '\'' +
+                ", action=" + action +
+                '}';
+    }
+
+    public String getRepoName() {
+        return repoName;
+    }
+
+    public void setRepoName(String repoName) {
+        this.repoName = repoName;
+    }
+
+    public boolean isRegistered() {
+        return registered;
+    }
+
+    public void setRegistered(boolean registered) {
+        this.registered = registered;
+    }
+
+    public WebHookAction getAction() {
+        return action;
+    }
+
+    public void setAction(WebHookAction action) {
+        this.action = action;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -18,13 +18,18 @@ package io.fabric8.forge.generator.github;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.Configuration;
+import io.fabric8.forge.generator.cache.CacheEvent;
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
 import io.fabric8.forge.generator.git.AbstractGitRepoStep;
 import io.fabric8.forge.generator.git.GitAccount;
+import io.fabric8.forge.generator.git.GitRepositoryDTO;
 import io.fabric8.forge.generator.git.GitSecretNames;
+import io.fabric8.forge.generator.git.RepositoryAvailability;
+import io.fabric8.utils.Strings;
 import org.infinispan.Cache;
 import org.jboss.forge.addon.ui.context.UIContext;
+import org.kohsuke.github.GHRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,11 +46,42 @@ public abstract class AbstractGitHubStep extends AbstractGitRepoStep {
         super(CacheNames.GITHUB_ACCOUNT_FROM_SECRET, CacheNames.GITHUB_ORGANISATIONS, cacheManager);
     }
 
+    /**
+     * Tells the caches about a repository we've created
+     */
+    public static void publishRepositoryCreated(CacheFacade cacheManager, GitHubFacade github, String org, GHRepository repository) {
+        if (cacheManager != null && github != null && github.isDetailsValid()) {
+            String owner = Strings.isNotBlank(org) ? org : github.getDetails().getUsername();
+            cacheManager.publish(CacheEvent.repositoryCreated(RepositoryAvailability.GITHUB, github.getDetails().getUserCacheKey(), owner,
+                    new GitRepositoryDTO(repository.getName(), repository)));
+        }
+    }
+
     protected GitHubFacade createGitHubFacade(UIContext context) {
-        return createGitHubFacade(context, this.accountCache);
+        return createGitHubFacade(context, this.accountCache, this.cacheManager);
     }
 
     public static GitHubFacade createGitHubFacade(UIContext context, Cache<String, GitAccount> accountCache) {
+        return createGitHubFacade(context, accountCache, null);
+    }
+
+    /**
+     * Creates the facade for the current user which, if the cache manager is specified, caches the lookups of
+     * missing or forbidden github resources for a short time
+     */
+    public static GitHubFacade createGitHubFacade(UIContext context, Cache<String, GitAccount> accountCache, CacheFacade cacheManager) {
+        GitHubFacade answer = createGitHubFacadeForAccount(context, accountCache);
+        if (cacheManager != null) {
+            answer.setNotFoundCache(cacheManager.getCache(CacheNames.GITHUB_NOT_FOUND));
+            if (answer.isDetailsValid()) {
+                answer.setRepositoryAvailability(new RepositoryAvailability(cacheManager.getCache(CacheNames.REPOSITORY_AVAILABILITY),
+                        RepositoryAvailability.GITHUB, answer.getDetails().getUserCacheKey()));
+            }
+        }
+        return answer;
+    }
+
+    private static GitHubFacade createGitHubFacadeForAccount(UIContext context, Cache<String, GitAccount> accountCache) {
         GitAccount details = (GitAccount) context.getAttributeMap().get(AttributeMapKeys.GIT_ACCOUNT);
         if (details == null) {
             if (Configuration.isOnPremise()) {
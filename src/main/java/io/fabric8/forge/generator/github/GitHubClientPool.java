@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import io.fabric8.forge.generator.git.GitAccount;
+import io.fabric8.forge.generator.kubernetes.UserIdentityResolver;
+import io.fabric8.utils.Strings;
+import org.kohsuke.github.GHMyself;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of authenticated github clients keyed by a hash of the users credentials so that each wizard step can reuse
+ * the client, its connections and the <code>/user</code> details rather than building a new client each time.
+ * <p>
+ * Clients which have not been used for {@link #DEFAULT_IDLE_MILLIS} are evicted.
+ */
+public class GitHubClientPool {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitHubClientPool.class);
+
+    public static final long DEFAULT_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    public static final int DEFAULT_MAX_CLIENTS = 1000;
+
+    private static final GitHubClientPool instance = new GitHubClientPool(DEFAULT_IDLE_MILLIS, DEFAULT_MAX_CLIENTS);
+
+    private final long idleMillis;
+    private final int maxClients;
+    private final Map<String, PooledClient> clients = new ConcurrentHashMap<>();
+    private volatile long lastEvictionCheck;
+
+    public GitHubClientPool(long idleMillis, int maxClients) {
+        this.idleMillis = idleMillis;
+        this.maxClients = maxClients;
+    }
+
+    public static GitHubClientPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the pooled client for the credentials of the given account, building it and loading the users
+     * details if there is no client for them yet
+     */
+    public PooledClient getClient(GitAccount details) throws IOException {
+        long now = System.currentTimeMillis();
+        evictIdleClients(now);
+        String key = clientKey(details);
+        PooledClient answer = clients.get(key);
+        if (answer == null) {
+            answer = createClient(details);
+            PooledClient old = clients.putIfAbsent(key, answer);
+            if (old != null) {
+                answer = old;
+            }
+        }
+        answer.lastUsed = now;
+        return answer;
+    }
+
+    /**
+     * Removes the client for the given account such as when its credentials have been replaced
+     */
+    public void remove(GitAccount details) {
+        clients.remove(clientKey(details));
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    protected static String clientKey(GitAccount details) {
+        String username = details.getUsername();
+        String password = details.getPassword();
+        if (Strings.isNotBlank(username) && Strings.isNotBlank(password)) {
+            return UserIdentityResolver.hashToken("basic/" + username + ":" + password);
+        }
+        // the user name may be switched to the github login so lets not include it for tokens
+        return UserIdentityResolver.hashToken("token/" + Objects.toString(details.getToken(), ""));
+    }
+
+    protected PooledClient createClient(GitAccount details) throws IOException {
+        String username = details.getUsername();
+        String token = details.getToken();
+        String password = details.getPassword();
+
+        // use a cache for responses so we don't count HTTP 304 against our API quota; partitioned by the client key
+        final GitHubBuilder ghb = GitHubHttpCache.configure(new GitHubBuilder(), clientKey(details));
+        if (Strings.isNotBlank(username) && Strings.isNotBlank(password)) {
+            ghb.withPassword(username, password);
+        } else if (Strings.isNotBlank(token)) {
+            if (Strings.isNotBlank(username)) {
+                ghb.withOAuthToken(token, username);
+            } else {
+                ghb.withOAuthToken(token);
+            }
+        }
+        GitHub github = ghb.build();
+        GHMyself myself = github.getMyself();
+        return new PooledClient(github, myself, myself.getLogin(), myself.getEmail());
+    }
+
+    protected void evictIdleClients(long now) {
+        if (now - lastEvictionCheck < TimeUnit.MINUTES.toMillis(1) && clients.size() < maxClients) {
+            return;
+        }
+        lastEvictionCheck = now;
+        long oldest = Long.MAX_VALUE;
+        String oldestKey = null;
+        for (Iterator<Map.Entry<String, PooledClient>> iter = clients.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<String, PooledClient> entry = iter.next();
+            long lastUsed = entry.getValue().lastUsed;
+            if (now - lastUsed > idleMillis) {
+                iter.remove();
+            } else if (lastUsed < oldest) {
+                oldest = lastUsed;
+                oldestKey = entry.getKey();
+            }
+        }
+        if (clients.size() >= maxClients && oldestKey != null) {
+            LOG.debug("Evicting the least recently used github client as we have " + clients.size() + " clients");
+            clients.remove(oldestKey);
+        }
+    }
+
+    /**
+     * An authenticated github client along with the details of the user loaded when it was created
+     */
+    public static class PooledClient {
+        private final GitHub github;
+        private final GHMyself myself;
+        private final String login;
+        private final String email;
+        private volatile long lastUsed;
+
+        public PooledClient(GitHub github, GHMyself myself, String login, String email) {
+            this.github = github;
+            this.myself = myself;
+            this.login = login;
+            this.email = email;
+        }
+
+        public GitHub getGithub() {
+            return github;
+        }
+
+        public GHMyself getMyself() {
+            return myself;
+        }
+
+        public String getLogin() {
+            return login;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+}
@@ -16,22 +16,38 @@
  */
 package io.fabric8.forge.generator.github;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.RequestBody;
+import com.squareup.okhttp.Response;
+import io.fabric8.devops.ProjectConfigs;
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.cache.Caches;
 import io.fabric8.forge.generator.git.EnvironmentVariablePrefixes;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitOrganisationDTO;
 import io.fabric8.forge.generator.git.GitRepositoryDTO;
+import io.fabric8.forge.generator.git.RepositoryAvailability;
+import io.fabric8.forge.generator.git.WebHookAction;
 import io.fabric8.forge.generator.git.WebHookDetails;
+import io.fabric8.forge.generator.utils.JsonHelper;
+import io.fabric8.forge.generator.utils.ParallelHelpers;
 import io.fabric8.project.support.UserDetails;
 import io.fabric8.utils.Strings;
 import io.fabric8.utils.URLUtils;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -39,7 +55,9 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.core.MediaType;
+import org.infinispan.Cache;
 import org.jboss.forge.addon.ui.context.UIValidationContext;
 import org.jboss.forge.addon.ui.input.UIInput;
 import org.kohsuke.github.GHContent;
@@ -47,11 +65,12 @@ import org.kohsuke.github.GHCreateRepositoryBuilder;
 import org.kohsuke.github.GHEvent;
 import org.kohsuke.github.GHHook;
 import org.kohsuke.github.GHMyself;
-import org.kohsuke.github.GHOrganization;
 import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GitHub;
-import org.kohsuke.github.GitHubBuilder;
 import org.kohsuke.github.HttpException;
+import org.kohsuke.github.PagedIterable;
+import org.kohsuke.github.PagedIterator;
+import org.kohsuke.github.PagedSearchIterable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,10 +81,25 @@ import static java.util.Collections.unmodifiableMap;
 public class GitHubFacade {
     private static final transient Logger LOG = LoggerFactory.getLogger(GitHubFacade.class);
     public static final String MY_PERSONAL_GITHUB_ACCOUNT = "My personal github account";
+    public static final int GRAPHQL_CHUNK_SIZE = 50;
+    public static final int REST_PARALLELISM = 8;
+    /**
+     * The number of github requests used to look up, replace and create a webhook
+     */
+    public static final int WEBHOOK_REQUESTS = 3;
+    public static final int ORGANISATIONS_PAGE_SIZE = 100;
+    public static final String ORGANISATIONS_LIST_METRICS = "github-organisations-list";
+    public static final String ORGANISATION_DETAILS_METRICS = "github-organisation-details";
+    /**
+     * The files whose absence we remember; the not found entries of a repository are evicted by their exact keys
+     */
+    public static final List<String> NOT_FOUND_FILES = Collections.singletonList(ProjectConfigs.LOCAL_FLOW_FILE_NAME);
     private final GitAccount details;
     private GHMyself myself;
 
     private GitHub github;
+    private Cache<String, Integer> notFoundCache;
+    private RepositoryAvailability repositoryAvailability;
 
     public GitHubFacade() {
         this(GitAccount.createViaEnvironmentVariables(EnvironmentVariablePrefixes.GITHUB));
@@ -75,37 +109,17 @@ public class GitHubFacade {
         this.details = details;
 
         String username = details.getUsername();
-        String token = details.getToken();
-        String password = details.getPassword();
-
-/*
-        // TODO
-        // Use a cache for responses so we don't count HTTP 304 against our API quota
-        final File githubCacheFolder = GitHubLocalCache.INSTANCE.getCacheFolder();
-        final Cache cache = new Cache(githubCacheFolder, TENMB);
-        final GitHubBuilder ghb = new GitHubBuilder()
-                .withConnector(new OkHttpConnector(new OkUrlFactory(new OkHttpClient().setCache(cache))));
-*/
         try {
-            final GitHubBuilder ghb = new GitHubBuilder();
-            if (Strings.isNotBlank(username) && Strings.isNotBlank(password)) {
-                ghb.withPassword(username, password);
-            } else if (Strings.isNotBlank(token)) {
-                if (Strings.isNotBlank(username)) {
-                    ghb.withOAuthToken(token, username);
-                } else {
-                    ghb.withOAuthToken(token);
-                }
-            }
-            this.github = ghb.build();
-            this.myself = this.github.getMyself();
-            String login = myself.getLogin();
+            GitHubClientPool.PooledClient client = GitHubClientPool.getInstance().getClient(details);
+            this.github = client.getGithub();
+            this.myself = client.getMyself();
+            String login = client.getLogin();
             if (Strings.isNotBlank(login) && !Objects.equals(login, username)) {
                 LOG.debug("Switching the github user name from " + username + " to " + login);
                 details.setUsername(login);
             }
             // lets always use the github email address
-            String email = myself.getEmail();
+            String email = client.getEmail();
             if (Strings.isNotBlank(email)) {
                 details.setEmail(email);
             }
@@ -114,60 +128,171 @@ public class GitHubFacade {
         }
     }
 
+    /**
+     * Creates a facade using the given client such as one talking to a test server
+     */
+    protected GitHubFacade(GitAccount details, GitHub github) {
+        this.details = details;
+        this.github = github;
+    }
+
 
+    /**
+     * Loads the personal account and organisations of the current user.
+     * <p>
+     * If the organisations could not be loaded, including when the request was shed by the
+     * {@link GitHubRateLimiter}, an {@link IllegalStateException} is thrown rather than returning just the personal
+     * account so that a cache loader does not store (or replace a complete listing with) a partial one.
+     */
     public Collection<GitOrganisationDTO> loadGitHubOrganisations() {
-        SortedSet<GitOrganisationDTO> organisations = new TreeSet<>();
+        SortedSet<GitOrganisationDTO> organisations = new TreeSet<>(getPersonalOrganisations());
         String username = details.getUsername();
-        if (Strings.isNotBlank(username)) {
-            organisations.add(new GitOrganisationDTO(username, MY_PERSONAL_GITHUB_ACCOUNT));
-        }
         GitHub github = this.github;
+        String organisationsKey = notFoundKey("orgs");
+        if (isCachedNotFound(organisationsKey)) {
+            LOG.debug("Not loading github organisations for " + username + " as the user did not have access recently");
+            return organisations;
+        }
         if (github != null) {
             try {
                 LOG.debug("Loading github organisations for " + username);
-                Map<String, GHOrganization> map = github.getMyOrganizations();
-                if (map != null) {
-                    Collection<GHOrganization> organizations = map.values();
-                    for (GHOrganization organization : organizations) {
-                        GitOrganisationDTO dto = new GitOrganisationDTO(organization, username);
-                        if (dto.isValid()) {
-                            organisations.add(dto);
-                        }
+                long start = System.nanoTime();
+                List<String> logins = listMyOrganisationLogins();
+                long listed = System.nanoTime();
+                Caches.metrics(ORGANISATIONS_LIST_METRICS).recordLoad(listed - start);
+
+                // lets load the details of each organisation in parallel as getMyOrganizations() does them one by one
+                List<GitOrganisationDTO> dtos = ParallelHelpers.map("github-organisation", logins, REST_PARALLELISM, login -> loadOrganisation(login, username));
+                for (GitOrganisationDTO dto : dtos) {
+                    if (dto != null && dto.isValid()) {
+                        organisations.add(dto);
                     }
                 }
+                long loaded = System.nanoTime();
+                Caches.metrics(ORGANISATION_DETAILS_METRICS).recordLoad(loaded - listed);
+                LOG.debug("Loaded " + logins.size() + " github organisations for " + username + " listing took "
+                        + TimeUnit.NANOSECONDS.toMillis(listed - start) + "ms and details took " + TimeUnit.NANOSECONDS.toMillis(loaded - listed) + "ms");
             } catch (HttpException e) {
-                if (e.getResponseCode() == 403) {
+                if (e.getResponseCode() == 403 && !isRateLimited(e)) {
                     // don't have the karma for listing organisations
                     LOG.warn("User doesn't have karma to list organisations: " + e);
+                    cacheNotFound(organisationsKey, 403);
                     return organisations;
-                } else {
-                    LOG.warn("Failed to load github organisations for user: " + details.getUsername() + " due to : " + e, e);
                 }
+                throw new IllegalStateException("Failed to load github organisations for user: " + username + " due to : " + e, e);
             } catch (IOException e) {
-                LOG.warn("Failed to load github organisations for user: " + details.getUsername() + " due to : " + e, e);
+                throw new IllegalStateException("Failed to load github organisations for user: " + username + " due to : " + e, e);
             }
         }
         return organisations;
     }
 
+    /**
+     * Returns just the personal account of the current user which is used when the organisations could not be loaded
+     */
+    public Collection<GitOrganisationDTO> getPersonalOrganisations() {
+        List<GitOrganisationDTO> answer = new ArrayList<>();
+        String username = details.getUsername();
+        if (Strings.isNotBlank(username)) {
+            answer.add(new GitOrganisationDTO(username, MY_PERSONAL_GITHUB_ACCOUNT));
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the logins of all the organisations of the current user following the pages of <code>/user/orgs</code>
+     */
+    protected List<String> listMyOrganisationLogins() throws IOException {
+        List<String> answer = new ArrayList<>();
+        ObjectMapper mapper = new ObjectMapper();
+        for (int page = 1; ; page++) {
+            String url = URLUtils.pathJoin(github.getApiUrl(), "/user/orgs") + "?per_page=" + ORGANISATIONS_PAGE_SIZE + "&page=" + page;
+            Request.Builder builder = authorize(new Request.Builder().url(url).header("Accept", MediaType.APPLICATION_JSON));
+            Response response = GitHubHttpCache.getInstance().getClient().newCall(builder.build()).execute();
+            JsonNode orgs;
+            try {
+                if (!response.isSuccessful()) {
+                    throw new HttpException("Failed to list organisations: " + response.message() + " " + response.body().string(),
+                            response.code(), response.message(), url);
+                }
+                orgs = mapper.readTree(response.body().byteStream());
+            } finally {
+                response.body().close();
+            }
+            int count = 0;
+            if (orgs != null && orgs.isArray()) {
+                for (JsonNode org : orgs) {
+                    String login = JsonHelper.textValue(org, "login");
+                    if (Strings.isNotBlank(login)) {
+                        answer.add(login);
+                    }
+                    count++;
+                }
+            }
+            if (count < ORGANISATIONS_PAGE_SIZE) {
+                return answer;
+            }
+        }
+    }
+
+    protected GitOrganisationDTO loadOrganisation(String login, String username) {
+        try {
+            return new GitOrganisationDTO(github.getOrganization(login), username);
+        } catch (FileNotFoundException e) {
+            LOG.warn("Failed to load github organisation " + login + " due to : " + e, e);
+            return new GitOrganisationDTO(login, null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load github organisation " + login + " due to : " + e, e);
+        }
+    }
+
     public void validateRepositoryName(UIInput<String> input, UIValidationContext context, String orgName,
                                        String repoName) {
-        GitHub github = this.github;
         if (github != null) {
-            String name = orgName + "/" + repoName;
-            try {
-                GHRepository repository = github.getRepository(name);
-                if (repository != null) {
-                    context.addValidationError(input, "The repository " + repoName + " already exists!");
-                }
-            } catch (FileNotFoundException e) {
-                // repo doesn't exist
-            } catch (IOException e) {
-                LOG.warn("Caught exception looking up github repository " + name + ". " + e, e);
+            Boolean exists;
+            if (repositoryAvailability != null) {
+                exists = repositoryAvailability.repositoryExists(orgName, repoName, () -> lookupRepositoryExists(orgName, repoName));
+            } else {
+                exists = lookupRepositoryExists(orgName, repoName);
+            }
+            if (exists != null && exists) {
+                context.addValidationError(input, "The repository " + repoName + " already exists!");
             }
         }
     }
 
+    /**
+     * Returns whether the repository exists or null if we could not find out
+     */
+    protected Boolean lookupRepositoryExists(String orgName, String repoName) {
+        String name = orgName + "/" + repoName;
+        String key = notFoundKey("repo", name);
+        if (isCachedNotFound(key)) {
+            return false;
+        }
+        try {
+            return github.getRepository(name) != null;
+        } catch (FileNotFoundException e) {
+            // repo doesn't exist
+            cacheNotFound(key, 404);
+            return false;
+        } catch (IOException e) {
+            LOG.warn("Caught exception looking up github repository " + name + ". " + e, e);
+            return null;
+        }
+    }
+
+    /**
+     * Sets the cache used to remember which repositories exist while the user types the repository name
+     */
+    public void setRepositoryAvailability(RepositoryAvailability repositoryAvailability) {
+        this.repositoryAvailability = repositoryAvailability;
+    }
+
+    /**
+     * Loads all the repositories of the given organisation or the current user, throwing an
+     * {@link IllegalStateException} if they could not all be loaded so that a partial listing is never cached
+     */
     public Collection<GitRepositoryDTO> getRepositoriesForOrganisation(String orgName) {
         Set<GitRepositoryDTO> answer = new TreeSet<>();
         GitHub github = this.github;
@@ -194,12 +319,70 @@ public class GitHubFacade {
                     }
                 }
             } catch (IOException e) {
-                LOG.warn("Caught exception looking up github repositories for " + orgName + ". " + e, e);
+                throw new IllegalStateException("Failed to look up github repositories for " + orgName + ". " + e, e);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the first page of repositories of the given organisation or the current user without crawling all of
+     * the pages so that large organisations can be shown quickly
+     */
+    public List<GitRepositoryDTO> getFirstRepositoriesForOrganisation(String orgName, int pageSize) {
+        List<GitRepositoryDTO> answer = new ArrayList<>();
+        GitHub github = this.github;
+        if (github != null) {
+            try {
+                PagedIterable<GHRepository> repositories;
+                String username = details.getUsername();
+                if (Strings.isNullOrBlank(orgName) || orgName.equals(username)) {
+                    repositories = github.getMyself().listRepositories(pageSize, GHMyself.RepositoryListFilter.OWNER);
+                } else {
+                    repositories = github.getOrganization(orgName).listRepositories(pageSize);
+                }
+                addRepositories(answer, repositories._iterator(pageSize));
+            } catch (IOException e) {
+                LOG.warn("Caught exception looking up the first github repositories for " + orgName + ". " + e, e);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Searches github for the repositories of the given organisation or the current user whose name contains the
+     * given text, returning at most the given number of results.
+     * <p>
+     * Throws an {@link IllegalStateException} if the search failed so that callers don't remember it as having no
+     * results.
+     */
+    public List<GitRepositoryDTO> searchRepositoriesForOrganisation(String orgName, String filter, int maxResults) {
+        List<GitRepositoryDTO> answer = new ArrayList<>();
+        GitHub github = this.github;
+        if (github != null && Strings.isNotBlank(filter)) {
+            String owner = Strings.isNullOrBlank(orgName) ? details.getUsername() : orgName;
+            try {
+                PagedSearchIterable<GHRepository> results = github.searchRepositories()
+                        .q(filter.trim() + " in:name fork:true")
+                        .user(owner)
+                        .list();
+                addRepositories(answer, results._iterator(maxResults));
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to search github repositories of " + owner + " for " + filter + ". " + e, e);
             }
         }
         return answer;
     }
 
+    private static void addRepositories(List<GitRepositoryDTO> answer, PagedIterator<GHRepository> iterator) {
+        if (iterator.hasNext()) {
+            for (GHRepository repository : iterator.nextPage()) {
+                answer.add(new GitRepositoryDTO(repository.getName(), repository));
+            }
+        }
+        Collections.sort(answer);
+    }
+
     public UserDetails createUserDetails(String gitUrl) {
         return new UserDetails(gitUrl, gitUrl, details.getUsername(), details.tokenOrPassword(), getEmail());
     }
@@ -207,18 +390,246 @@ public class GitHubFacade {
     public boolean hasFile(String org, String repoName, String fileName) {
         boolean hasFile = false;
         GHContent content = null;
+        String key = fileNotFoundKey(org, repoName, fileName);
+        if (isCachedNotFound(key)) {
+            return hasFile;
+        }
         try {
             content = github.getRepository(org + "/" + repoName).getFileContent(fileName);
             if (content != null) {
                 hasFile = true;
             }
+        } catch (FileNotFoundException e) {
+            cacheNotFound(key, 404);
+            return hasFile;
+        } catch (HttpException e) {
+            if ((e.getResponseCode() == 403 && !isRateLimited(e)) || e.getResponseCode() == 404) {
+                cacheNotFound(key, e.getResponseCode());
+            } else {
+                LOG.warn("Failed to find file " + fileName + " in github repository " + org + "/" + repoName + ". " + e, e);
+            }
+            return hasFile;
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.warn("Failed to find file " + fileName + " in github repository " + org + "/" + repoName + ". " + e, e);
             return hasFile;
         }
         return hasFile;
     }
 
+    /**
+     * Returns the names of the given repositories which contain the given file.
+     * <p>
+     * The repositories are queried in chunks of {@link #GRAPHQL_CHUNK_SIZE} via a single GraphQL query each; if that
+     * fails we fall back to calling {@link #hasFile(String, String, String)} for each repository of the chunk with
+     * at most {@link #REST_PARALLELISM} concurrent requests. The answer is in the same order as the repository names.
+     */
+    public List<String> findRepositoriesWithFile(String org, List<String> repoNames, String fileName) {
+        List<String> candidates = new ArrayList<>();
+        for (String repoName : repoNames) {
+            if (!isCachedNotFound(fileNotFoundKey(org, repoName, fileName))) {
+                candidates.add(repoName);
+            }
+        }
+        Set<String> found = new HashSet<>();
+        for (int i = 0; i < candidates.size(); i += GRAPHQL_CHUNK_SIZE) {
+            List<String> chunk = candidates.subList(i, Math.min(candidates.size(), i + GRAPHQL_CHUNK_SIZE));
+            Map<String, Boolean> results = null;
+            try {
+                results = queryFilesViaGraphQL(org, chunk, fileName);
+            } catch (Exception e) {
+                LOG.warn("Failed to query github for file " + fileName + " in " + chunk.size() + " repositories of " + org + " via GraphQL so using REST. " + e, e);
+            }
+            if (results == null) {
+                results = new HashMap<>();
+                List<Boolean> hasFiles = ParallelHelpers.map("github-has-file", chunk, REST_PARALLELISM, repoName -> hasFile(org, repoName, fileName));
+                for (int j = 0; j < chunk.size(); j++) {
+                    results.put(chunk.get(j), hasFiles.get(j));
+                }
+            }
+            for (Map.Entry<String, Boolean> entry : results.entrySet()) {
+                if (entry.getValue()) {
+                    found.add(entry.getKey());
+                }
+            }
+        }
+        List<String> answer = new ArrayList<>();
+        for (String repoName : repoNames) {
+            if (found.contains(repoName)) {
+                answer.add(repoName);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Checks which of the repositories contain the given file on their default branch using one GraphQL query,
+     * returning null if the query could not be performed
+     */
+    protected Map<String, Boolean> queryFilesViaGraphQL(String org, List<String> repoNames, String fileName) throws IOException {
+        if (github == null || Strings.isNullOrBlank(details.tokenOrPassword())) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder("query {");
+        for (int i = 0; i < repoNames.size(); i++) {
+            query.append(" r").append(i).append(": repository(owner: ").append(graphQLString(org))
+                    .append(", name: ").append(graphQLString(repoNames.get(i)))
+                    .append(") { object(expression: ").append(graphQLString("HEAD:" + fileName))
+                    .append(") { __typename } }");
+        }
+        query.append(" }");
+
+        ObjectMapper mapper = new ObjectMapper();
+        String body = mapper.writeValueAsString(Collections.singletonMap("query", query.toString()));
+        String graphQLUrl = URLUtils.pathJoin(github.getApiUrl(), "/graphql");
+        // use the shared client so the query goes through the rate limiter and retries like the rest of the API
+        Request request = new Request.Builder().url(graphQLUrl)
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .header("Authorization", details.mandatoryAuthHeader())
+                .header(GitHubHttpCache.USER_HEADER, GitHubClientPool.clientKey(details))
+                .post(RequestBody.create(com.squareup.okhttp.MediaType.parse(MediaType.APPLICATION_JSON), body))
+                .build();
+        Response response = GitHubHttpCache.getInstance().getClient().newCall(request).execute();
+        try {
+            if (response.code() != 200) {
+                LOG.warn("Got response code from github " + graphQLUrl + " status: " + response.code() + " message: " + response.message());
+                return null;
+            }
+            JsonNode data;
+            try (InputStream in = response.body().byteStream()) {
+                data = mapper.readTree(in).get("data");
+            }
+            if (data == null || data.isNull()) {
+                return null;
+            }
+            Map<String, Boolean> answer = new HashMap<>();
+            for (int i = 0; i < repoNames.size(); i++) {
+                String repoName = repoNames.get(i);
+                JsonNode object = JsonHelper.navigate(data, "r" + i, "object");
+                boolean hasFile = object != null && !object.isNull();
+                if (!hasFile) {
+                    cacheNotFound(fileNotFoundKey(org, repoName, fileName), 404);
+                }
+                answer.put(repoName, hasFile);
+            }
+            return answer;
+        } finally {
+            response.body().close();
+        }
+    }
+
+    protected static String graphQLString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Sets the cache used to remember which github resources were missing or forbidden recently so that we don't
+     * keep asking github for them on each validation
+     */
+    public void setNotFoundCache(Cache<String, Integer> notFoundCache) {
+        this.notFoundCache = notFoundCache;
+    }
+
+    protected String notFoundKey(String... paths) {
+        if (notFoundCache == null || details == null || !isDetailsValid()) {
+            return null;
+        }
+        return createNotFoundKey(details.getUserCacheKey(), paths);
+    }
+
+    /**
+     * Returns the key of a missing file or null if we don't remember the absence of the file
+     */
+    protected String fileNotFoundKey(String org, String repoName, String fileName) {
+        if (!NOT_FOUND_FILES.contains(fileName)) {
+            return null;
+        }
+        return notFoundKey("file", org + "/" + repoName, fileName);
+    }
+
+    /**
+     * Returns the keys of the cached not found results of the given repository and its files so that they can be
+     * evicted when the repository is created or changed
+     */
+    public static List<String> notFoundKeys(String gitUserCacheKey, String org, String repoName) {
+        String name = org + "/" + repoName;
+        List<String> answer = new ArrayList<>();
+        answer.add(createNotFoundKey(gitUserCacheKey, "repo", name));
+        for (String fileName : NOT_FOUND_FILES) {
+            answer.add(createNotFoundKey(gitUserCacheKey, "file", name, fileName));
+        }
+        return answer;
+    }
+
+    protected static String createNotFoundKey(String gitUserCacheKey, String... paths) {
+        StringBuilder builder = new StringBuilder(gitUserCacheKey);
+        for (String path : paths) {
+            builder.append("/").append(path);
+        }
+        return builder.toString();
+    }
+
+    protected boolean isCachedNotFound(String key) {
+        return key != null && notFoundCache.get(key) != null;
+    }
+
+    /**
+     * Returns true if the error is github refusing the request due to its primary or secondary rate limits rather
+     * than the user not having access; such errors must not be remembered as forbidden
+     */
+    protected boolean isRateLimited(HttpException e) {
+        if (e.getResponseCode() != 403) {
+            return false;
+        }
+        String message = e.getMessage();
+        if (message != null) {
+            message = message.toLowerCase();
+            if (message.contains("rate limit") || message.contains("abuse")) {
+                return true;
+            }
+        }
+        return getRateLimit().isLimited(System.currentTimeMillis());
+    }
+
+    protected void cacheNotFound(String key, int responseCode) {
+        if (key != null) {
+            notFoundCache.put(key, responseCode);
+        }
+    }
+
+    /**
+     * Returns the rate limit budget of the users token as seen by the {@link GitHubRateLimiter}
+     */
+    public GitHubRateLimit getRateLimit() {
+        return GitHubHttpCache.getInstance().getRateLimiter().getRateLimit(getAuthorizationHeader());
+    }
+
+    /**
+     * Returns the same authorization header as the github client sends
+     */
+    protected String getAuthorizationHeader() {
+        String username = details.getUsername();
+        String token = details.getToken();
+        String password = details.getPassword();
+        if (Strings.isNotBlank(username) && Strings.isNotBlank(password)) {
+            return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        } else if (Strings.isNotBlank(token)) {
+            return "token " + token;
+        }
+        return null;
+    }
+
+    /**
+     * Adds the authorization header along with the user key the shared HTTP cache partitions responses by
+     */
+    protected Request.Builder authorize(Request.Builder builder) {
+        String authorization = getAuthorizationHeader();
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+            builder.header(GitHubHttpCache.USER_HEADER, GitHubClientPool.clientKey(details));
+        }
+        return builder;
+    }
+
     public GHMyself getMyself() {
         if (myself == null) {
             try {
@@ -284,28 +695,122 @@ public class GitHubFacade {
         return details != null && GitAccount.isValid(details);
     }
 
-    public void createWebHook(WebHookDetails webhook) throws IOException {
+    /**
+     * Ensures the repository has a webhook matching the given details.
+     * <p>
+     * By default an existing webhook for the URL is reconciled: its left alone if its configuration and events
+     * already match, otherwise its patched, and any duplicates for the same URL are removed. GitHub does not return
+     * the secret so the webhook is patched if it was last updated before the secret was (see
+     * {@link WebHookDetails#getSecretUpdated()}) or we don't know when that was. If {@link EnvironmentVariables#GITHUB_WEBHOOK_RECONCILE}
+     * is <code>false</code> the old webhooks are deleted and a new one created instead.
+     */
+    public WebHookAction createWebHook(WebHookDetails webhook) throws IOException {
         String repoName = webhook.getRepositoryName();
-
-
         String orgName = webhook.getGitOwnerName();
         GHRepository repository = github.getRepository(orgName + "/" + repoName);
         String webhookUrl = webhook.getWebhookUrl();
 
-        removeOldWebHooks(repository, webhookUrl);
+        WebHookAction action;
+        if (isReconcileWebHooks()) {
+            action = reconcileWebHook(repository, webhook);
+        } else {
+            removeOldWebHooks(repository, webhookUrl);
+            action = WebHookAction.CREATED;
+        }
+        if (action == WebHookAction.CREATED) {
+            List<GHEvent> events = new ArrayList<>();
+            events.add(GHEvent.ALL);
+            GHHook hook = repository.createHook("web", createWebHookConfig(webhook), events, true);
+            if (hook != null) {
+                LOG.info("Created WebHook " + hook.getName() + " with ID " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
+            }
+        }
+        GitHubWebHookMetrics.getInstance().record(action);
+        return action;
+    }
+
+    protected static boolean isReconcileWebHooks() {
+        return !"false".equalsIgnoreCase(System.getenv(EnvironmentVariables.GITHUB_WEBHOOK_RECONCILE));
+    }
 
+    protected static Map<String, String> createWebHookConfig(WebHookDetails webhook) {
         Map<String, String> config = new HashMap<>();
-        config.put("url", webhookUrl);
+        config.put("url", webhook.getWebhookUrl());
         config.put("insecure_ssl", "1");
         config.put("content_type", "json");
         config.put("secret", webhook.getSecret());
-        List<GHEvent> events = new ArrayList<>();
-        events.add(GHEvent.ALL);
-        GHHook hook = repository.createHook("web", config, events, true);
-        if (hook != null) {
-            LOG.info("Created WebHook " + hook.getName() + " with ID " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
+        return config;
+    }
+
+    /**
+     * Returns true if the secret of the webhook may be older than the current secret
+     */
+    protected static boolean isSecretStale(GHHook hook, WebHookDetails webhook) throws IOException {
+        Date secretUpdated = webhook.getSecretUpdated();
+        Date hookUpdated = hook.getUpdatedAt();
+        return secretUpdated == null || hookUpdated == null || hookUpdated.before(secretUpdated);
+    }
+
+    protected WebHookAction reconcileWebHook(GHRepository repository, WebHookDetails webhook) throws IOException {
+        String webhookUrl = webhook.getWebhookUrl();
+        List<GHHook> matching = new ArrayList<>();
+        for (GHHook hook : repository.getHooks()) {
+            Map<String, String> config = hook.getConfig();
+            if (config != null && webhookUrl.equals(config.get("url"))) {
+                matching.add(hook);
+            }
+        }
+        if (matching.isEmpty()) {
+            return WebHookAction.CREATED;
+        }
+        GHHook hook = matching.get(0);
+        for (GHHook duplicate : matching.subList(1, matching.size())) {
+            LOG.info("Removing duplicate WebHook " + duplicate.getName() + " with ID " + duplicate.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
+            try {
+                duplicate.delete();
+                GitHubWebHookMetrics.getInstance().recordDuplicateDeleted();
+            } catch (IOException e) {
+                LOG.warn("Failed to remove WebHook " + duplicate.getName() + " with ID " + duplicate.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl + " due to: " + e, e);
+            }
+        }
+        Map<String, Object> changes = new HashMap<>();
+        if (!hook.isActive()) {
+            changes.put("active", true);
+        }
+        if (!EnumSet.of(GHEvent.ALL).equals(hook.getEvents())) {
+            changes.put("events", Collections.singletonList("*"));
+        }
+        Map<String, String> config = hook.getConfig();
+        if (!"json".equals(config.get("content_type")) || !"1".equals(config.get("insecure_ssl")) || Strings.isNullOrBlank(config.get("secret"))
+                || isSecretStale(hook, webhook)) {
+            changes.put("config", createWebHookConfig(webhook));
+        }
+        if (changes.isEmpty()) {
+            LOG.debug("WebHook " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl + " is up to date");
+            return WebHookAction.SKIPPED;
+        }
+        LOG.info("Updating " + changes.keySet() + " of WebHook " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
+        String hookUrl = URLUtils.pathJoin(github.getApiUrl(), "/repos/", repository.getFullName(), "/hooks/", "" + hook.getId());
+        patchJson(hookUrl, new ObjectMapper().writeValueAsString(changes));
+        return WebHookAction.UPDATED;
+    }
+
+    /**
+     * Sends a PATCH via the shared connector as the github API does not support editing webhooks
+     */
+    protected void patchJson(String url, String json) throws IOException {
+        Request.Builder builder = new Request.Builder().url(url)
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .patch(RequestBody.create(com.squareup.okhttp.MediaType.parse(MediaType.APPLICATION_JSON), json));
+        authorize(builder);
+        Response response = GitHubHttpCache.getInstance().getClient().newCall(builder.build()).execute();
+        try {
+            if (!response.isSuccessful()) {
+                throw new IOException("Failed to PATCH " + url + ". Status: " + response.code() + " message: " + response.message());
+            }
+        } finally {
+            response.body().close();
         }
-        //registerGitWebHook(details, webhook.getWebhookUrl(), webhook.getGitOwnerName(), repoName, webhook.getSecret());
     }
 
     private void removeOldWebHooks(GHRepository repository, String webhookUrl) {
@@ -334,48 +839,6 @@ public class GitHubFacade {
         }
     }
 
-    private void registerGitWebHook(GitAccount details, String webhookUrl, String gitOwnerName, String gitRepoName, String botSecret) throws IOException {
-
-        LOG.info("Creating webhook at " + webhookUrl);
-        // TODO move this logic into the GitProvider!!!
-        String body = "{\"name\": \"web\",\"active\": true,\"events\": [\"*\"],\"config\": {\"url\": \"" + webhookUrl + "\",\"insecure_ssl\":\"1\"," +
-                "\"content_type\": \"json\",\"secret\":\"" + botSecret + "\"}}";
-
-        String authHeader = details.mandatoryAuthHeader();
-        String createWebHookUrl = URLUtils.pathJoin("https://api.github.com/repos/", gitOwnerName, gitRepoName, "/hooks");
-
-        // JAX-RS doesn't work so lets use trusty java.net.URL instead ;)
-        HttpURLConnection connection = null;
-        try {
-            URL url = new URL(createWebHookUrl);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Accept", MediaType.APPLICATION_JSON);
-            connection.setRequestProperty("Content-Type", MediaType.APPLICATION_JSON);
-            connection.setRequestProperty("Authorization", authHeader);
-            connection.setDoOutput(true);
-
-            OutputStreamWriter out = new OutputStreamWriter(
-                    connection.getOutputStream());
-            out.write(body);
-
-            out.close();
-            int status = connection.getResponseCode();
-            String message = connection.getResponseMessage();
-            LOG.info("Got response code from github " + createWebHookUrl + " status: " + status + " message: " + message);
-            if (status < 200 || status >= 300) {
-                LOG.error("Failed to create the github web hook at: " + createWebHookUrl + ". Status: " + status + " message: " + message);
-                throw new IllegalStateException("Failed to create the github web hook at: " + createWebHookUrl + ". Status: " + status + " message: " + message);
-            }
-        } catch (Exception e) {
-            LOG.error("Failed to create the github web hook at: " + createWebHookUrl + ". " + e, e);
-            throw e;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
-    }
 
 
 }
@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import com.squareup.okhttp.Cache;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.OkUrlFactory;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.cache.CacheMetrics;
+import io.fabric8.forge.generator.cache.Caches;
+import io.fabric8.utils.Strings;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.extras.OkHttpConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A bounded on disk HTTP response cache shared by all the {@link GitHubFacade} clients.
+ * <p>
+ * Every GET is revalidated with <code>If-None-Match</code> so that we never use stale data but a
+ * <code>304 Not Modified</code> response does not count against the users API rate limit.
+ * <p>
+ * GitHub returns <code>Vary: Authorization</code> which would make the cache write the users token to disk, so the
+ * response is changed to vary on the {@link #USER_HEADER} instead which each client sets to a hash of its
+ * credentials; responses are still never shared between users. Requests with credentials but no
+ * {@link #USER_HEADER} are not cached. The cache directory must be configured explicitly and is only readable by
+ * the owner.
+ * <p>
+ * Revalidations which return 304 are recorded as hits and any other GET as a miss in the
+ * {@link CacheMetrics} called {@link #METRICS_NAME}.
+ * <p>
+ * All requests also go through the {@link GitHubRateLimiter} to schedule them within the budget of each token and
+ * idempotent requests which fail are retried by the {@link GitHubRetryInterceptor}.
+ */
+public class GitHubHttpCache {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitHubHttpCache.class);
+
+    public static final String METRICS_NAME = "github-http";
+    public static final int DEFAULT_SIZE_MB = 50;
+    public static final String USER_HEADER = "X-Fabric8-Cache-User";
+
+    private static GitHubHttpCache instance;
+
+    private final File directory;
+    private final long maxBytes;
+    private final OkHttpClient client;
+    private final GitHubRateLimiter rateLimiter;
+    private final CacheMetrics metrics = Caches.metrics(METRICS_NAME);
+
+    public GitHubHttpCache(File directory, long maxBytes) {
+        this(directory, maxBytes, new GitHubRateLimiter());
+    }
+
+    /**
+     * Creates the connector factory with a response cache in the given directory unless the size is zero
+     */
+    public GitHubHttpCache(File directory, long maxBytes, GitHubRateLimiter rateLimiter) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.rateLimiter = rateLimiter;
+        this.client = new OkHttpClient();
+        this.client.networkInterceptors().add(rateLimiter);
+        if (maxBytes > 0) {
+            createPrivateDirectory(directory);
+            this.client.setCache(new Cache(directory, maxBytes));
+            this.client.networkInterceptors().add(chain -> {
+                long start = System.nanoTime();
+                Response response = chain.proceed(chain.request());
+                return revalidate(chain.request(), response, System.nanoTime() - start);
+            });
+        }
+        new GitHubRetryInterceptor().install(client);
+    }
+
+    /**
+     * Creates the directory, or restricts an existing one, so that only the owner can read the cached responses
+     */
+    protected static void createPrivateDirectory(File directory) {
+        Path path = directory.toPath();
+        try {
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rwx------");
+                if (Files.isDirectory(path)) {
+                    Files.setPosixFilePermissions(path, permissions);
+                } else {
+                    Files.createDirectories(path, PosixFilePermissions.asFileAttribute(permissions));
+                }
+            } else {
+                Files.createDirectories(path);
+                directory.setReadable(false, false);
+                directory.setReadable(true, true);
+                directory.setWritable(false, false);
+                directory.setWritable(true, true);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create the private github HTTP cache directory " + directory + ". " + e, e);
+        }
+    }
+
+    /**
+     * Returns the shared cache configured via the {@link EnvironmentVariables#GITHUB_HTTP_CACHE_DIR} and
+     * {@link EnvironmentVariables#GITHUB_HTTP_CACHE_SIZE_MB} environment variables; a size of zero or no directory
+     * disables the response cache
+     */
+    public static synchronized GitHubHttpCache getInstance() {
+        if (instance == null) {
+            int sizeMb = DEFAULT_SIZE_MB;
+            String size = System.getenv(EnvironmentVariables.GITHUB_HTTP_CACHE_SIZE_MB);
+            if (Strings.isNotBlank(size)) {
+                try {
+                    sizeMb = Integer.parseInt(size.trim());
+                } catch (NumberFormatException e) {
+                    LOG.warn("Invalid value of $" + EnvironmentVariables.GITHUB_HTTP_CACHE_SIZE_MB + " " + size + ". " + e, e);
+                }
+            }
+            String dir = System.getenv(EnvironmentVariables.GITHUB_HTTP_CACHE_DIR);
+            if (Strings.isNullOrBlank(dir)) {
+                // we don't want to write responses for private repositories into a shared temporary directory
+                LOG.info("No $" + EnvironmentVariables.GITHUB_HTTP_CACHE_DIR + " so not caching github responses on disk");
+                sizeMb = 0;
+                dir = "";
+            }
+            instance = new GitHubHttpCache(new File(dir), Math.max(0, sizeMb) * 1024L * 1024L);
+            LOG.info("Using " + instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Configures the builder to use the shared cache and rate limiter for the user with the given cache key
+     */
+    public static GitHubBuilder configure(GitHubBuilder builder, String userCacheKey) {
+        return builder.withConnector(getInstance().createConnector(userCacheKey));
+    }
+
+    @Override
+    public String toString() {
+        return "GitHubHttpCache{" +
+                "directory=" + directory +
+                ", maxBytes=" + maxBytes +
+                '}';
+    }
+
+    /**
+     * Creates a connector for anonymous requests
+     */
+    public OkHttpConnector createConnector() {
+        return createConnector(null);
+    }
+
+    /**
+     * Creates a connector which partitions the cached responses using the given key; a hash of the users credentials
+     */
+    public OkHttpConnector createConnector(String userCacheKey) {
+        return new OkHttpConnector(new OkUrlFactory(client)) {
+            @Override
+            public HttpURLConnection connect(URL url) throws IOException {
+                HttpURLConnection connection = super.connect(url);
+                if (userCacheKey != null) {
+                    connection.setRequestProperty(USER_HEADER, userCacheKey);
+                }
+                return connection;
+            }
+        };
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    public GitHubRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Marks the response as <code>no-cache</code> so that GitHub's <code>max-age</code> does not let us use a stale
+     * response without revalidating it and records whether the revalidation avoided reloading the body
+     */
+    protected Response revalidate(Request request, Response response, long nanos) {
+        if (!"GET".equals(request.method())) {
+            return response;
+        }
+        Response.Builder builder = response.newBuilder();
+        List<String> vary = response.headers("Vary");
+        if (!vary.isEmpty()) {
+            builder.removeHeader("Vary");
+            for (String value : vary) {
+                builder.addHeader("Vary", value.replaceAll("(?i)\\bAuthorization\\b", USER_HEADER));
+            }
+        }
+        if (request.header("Authorization") != null && request.header(USER_HEADER) == null) {
+            return builder.header("Cache-Control", "no-store").build();
+        }
+        if (response.code() == 304) {
+            metrics.recordHit();
+        } else {
+            metrics.recordMiss();
+            metrics.recordLoad(nanos);
+        }
+        return builder.header("Cache-Control", "no-cache").build();
+    }
+}
@@ -46,11 +46,9 @@ public class GitHubImportPickOrganisationStep extends AbstractGitHubStep impleme
 
         this.github = createGitHubFacade(builder.getUIContext());
 
-        // TODO cache this per user every say 30 seconds!
         Collection<GitOrganisationDTO> organisations = new ArrayList<>();
         if (github != null && github.isDetailsValid()) {
-            String orgKey = github.getDetails().getUserCacheKey();
-            organisations = organisationsCache.computeIfAbsent(orgKey, k -> github.loadGitHubOrganisations());
+            organisations = GitHubOrganisationDirectory.getOrganisations(organisationsCache, github);
         }
         gitOrganisation.setValueChoices(organisations);
         gitOrganisation.setItemLabelConverter(organisation -> organisation.getId());
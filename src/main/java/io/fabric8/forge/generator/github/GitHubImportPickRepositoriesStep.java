@@ -9,7 +9,9 @@ package io.fabric8.forge.generator.github;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.cache.Caches;
 import io.fabric8.forge.generator.git.GitRepositoryDTO;
+import io.fabric8.forge.generator.git.GitRepositoryListing;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
 import io.fabric8.forge.generator.tenant.NamespaceDTO;
 import io.fabric8.forge.generator.tenant.Tenants;
@@ -25,6 +27,7 @@ import org.jboss.forge.addon.ui.context.UIContext;
 import org.jboss.forge.addon.ui.context.UIExecutionContext;
 import org.jboss.forge.addon.ui.context.UINavigationContext;
 import org.jboss.forge.addon.ui.context.UIValidationContext;
+import org.jboss.forge.addon.ui.input.UIInput;
 import org.jboss.forge.addon.ui.input.UISelectMany;
 import org.jboss.forge.addon.ui.metadata.WithAttributes;
 import org.jboss.forge.addon.ui.result.NavigationResult;
@@ -36,9 +39,12 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
 import static io.fabric8.forge.generator.AttributeMapKeys.GIT_REPOSITORY_PATTERN;
 import static io.fabric8.forge.generator.AttributeMapKeys.GIT_REPO_NAMES;
 import static io.fabric8.forge.generator.keycloak.TokenHelper.getMandatoryAuthHeader;
@@ -48,12 +54,26 @@ import static io.fabric8.forge.generator.keycloak.TokenHelper.getMandatoryAuthHe
  */
 public class GitHubImportPickRepositoriesStep extends AbstractGitHubStep implements UIWizardStep {
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
+    public static final int PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_RESULTS = 100;
+    public static final int MIN_SEARCH_LENGTH = 3;
+
     protected Cache<String, Collection<GitRepositoryDTO>> repositoriesCache;
     @Inject
+    @WithAttributes(label = "Filter", description = "Only show the repositories whose name contains this text")
+    private UIInput<String> repositoryFilter;
+    @Inject
     @WithAttributes(label = "Repository name pattern", required = true, description = "The regex pattern to match repository names")
     private UISelectMany<GitRepositoryDTO> gitRepositoryPattern;
     private GitHubFacade github;
-    private Collection<GitRepositoryDTO> repositoryNames;
+    private String orgKey;
+    private List<GitRepositoryDTO> firstPage;
+    private final Map<String, List<GitRepositoryDTO>> searchResults = new LinkedHashMap<String, List<GitRepositoryDTO>>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<GitRepositoryDTO>> eldest) {
+            return size() > 20;
+        }
+    };
     private KubernetesClient kubernetesClient;
     protected Cache<String, List<NamespaceDTO>> namespacesCache;
     private List<NamespaceDTO> namespaces;
@@ -64,7 +84,7 @@ public class GitHubImportPickRepositoriesStep extends AbstractGitHubStep impleme
         kubernetesClient = KubernetesClientHelper.createKubernetesClient(builder.getUIContext());
         namespacesCache = cacheManager.getCache(CacheNames.USER_NAMESPACES);
         final String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        namespaces = namespacesCache.computeIfAbsent(key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(builder.getUIContext())));
+        namespaces = Caches.computeIfAbsent(namespacesCache, key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(builder.getUIContext())));
 
         repositoriesCache = cacheManager.getCache(CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION);
 
@@ -74,15 +94,101 @@ public class GitHubImportPickRepositoriesStep extends AbstractGitHubStep impleme
         final String gitOrganisation = (String) attributeMap.get(AttributeMapKeys.GIT_ORGANISATION);
 
         String userKey = github.getDetails().getUserCacheKey();
-        String orgKey = userKey + "/" + gitOrganisation;
+        this.orgKey = userKey + "/" + gitOrganisation;
 
-        this.repositoryNames = repositoriesCache.computeIfAbsent(orgKey, k -> github.getRepositoriesForOrganisation(gitOrganisation));
+        // lets crawl all the repositories in the background and show the first page or search results until its done;
+        // we store the compact listing in the cache and older entries restored from a cache store may be plain collections.
+        // A failed crawl throws and an empty one returns null so neither is cached and the next visit crawls again;
+        // an empty listing cached before that is treated as not crawled yet
+        Collection<GitRepositoryDTO> cached = repositoriesCache.get(orgKey);
+        if (cached != null && cached.isEmpty()) {
+            repositoriesCache.remove(orgKey, cached);
+        }
+        Caches.prefetch(repositoriesCache, orgKey, k -> {
+            Collection<GitRepositoryDTO> repositories = github.getRepositoriesForOrganisation(gitOrganisation);
+            return repositories.isEmpty() ? null : GitRepositoryListing.of(repositories);
+        });
 
-        gitRepositoryPattern.setValueChoices(repositoryNames);
+        gitRepositoryPattern.setValueChoices(() -> loadRepositoryChoices(gitOrganisation));
         gitRepositoryPattern.setItemLabelConverter(dto -> dto.getId());
+        builder.add(repositoryFilter);
         builder.add(gitRepositoryPattern);
     }
 
+    /**
+     * Returns the repositories matching the current filter along with any already selected repositories.
+     * <p>
+     * Once the background crawl has cached the full, non empty, listing we filter it locally; until then we show the first page
+     * of repositories or ask github to search for the filter text. Short filters, or filters which extend one whose
+     * complete results we already have, are applied to those results locally rather than searching again.
+     */
+    protected List<GitRepositoryDTO> loadRepositoryChoices(String gitOrganisation) {
+        String filter = repositoryFilter.getValue();
+        Set<GitRepositoryDTO> answer = new TreeSet<>();
+        Iterable<GitRepositoryDTO> selected = gitRepositoryPattern.getValue();
+        if (selected != null) {
+            for (GitRepositoryDTO repository : selected) {
+                answer.add(repository);
+            }
+        }
+        Collection<GitRepositoryDTO> all = repositoriesCache.get(orgKey);
+        if (all != null && !all.isEmpty()) {
+            for (GitRepositoryDTO repository : GitRepositoryListing.of(all)) {
+                if (matchesFilter(repository, filter)) {
+                    answer.add(repository);
+                }
+            }
+        } else {
+            for (GitRepositoryDTO repository : searchRepositories(gitOrganisation, filter)) {
+                if (matchesFilter(repository, filter)) {
+                    answer.add(repository);
+                }
+            }
+        }
+        return new ArrayList<>(answer);
+    }
+
+    /**
+     * Returns the repositories which could match the given filter before the full listing has been crawled
+     */
+    protected List<GitRepositoryDTO> searchRepositories(String gitOrganisation, String filter) {
+        if (firstPage == null) {
+            firstPage = github.getFirstRepositoriesForOrganisation(gitOrganisation, PAGE_SIZE);
+        }
+        String text = Strings.isNullOrBlank(filter) ? "" : filter.trim().toLowerCase();
+        if (text.length() < MIN_SEARCH_LENGTH || firstPage.size() < PAGE_SIZE) {
+            // either too short to be worth a search or the first page is all of the repositories
+            return firstPage;
+        }
+        List<GitRepositoryDTO> results = searchResults.get(text);
+        if (results != null) {
+            return results;
+        }
+        for (Map.Entry<String, List<GitRepositoryDTO>> entry : searchResults.entrySet()) {
+            if (text.contains(entry.getKey()) && entry.getValue().size() < MAX_SEARCH_RESULTS) {
+                // we have all the repositories matching a shorter filter so lets filter those
+                return entry.getValue();
+            }
+        }
+        try {
+            results = github.searchRepositoriesForOrganisation(gitOrganisation, text, MAX_SEARCH_RESULTS);
+        } catch (RuntimeException e) {
+            // lets not remember the failed search so that we try again when the user types
+            LOG.warn("Failed to search the repositories of " + gitOrganisation + " for " + text + ". " + e, e);
+            return firstPage;
+        }
+        searchResults.put(text, results);
+        return results;
+    }
+
+    private static boolean matchesFilter(GitRepositoryDTO repository, String filter) {
+        if (Strings.isNullOrBlank(filter)) {
+            return true;
+        }
+        String id = repository.getId();
+        return id != null && id.toLowerCase().contains(filter.trim().toLowerCase());
+    }
+
     @Override
     public void validate(UIValidationContext context) {
         if (github == null || !github.isDetailsValid()) {
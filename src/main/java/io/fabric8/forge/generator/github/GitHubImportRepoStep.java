@@ -16,6 +16,7 @@
  */
 package io.fabric8.forge.generator.github;
 
+import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.pipeline.AbstractDevToolsCommand;
 import io.fabric8.project.support.UserDetails;
 import io.fabric8.utils.Strings;
@@ -34,6 +35,7 @@ import org.kohsuke.github.GHRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
@@ -47,6 +49,7 @@ import static io.fabric8.forge.generator.AttributeMapKeys.GIT_REPO_NAME;
 import static io.fabric8.forge.generator.AttributeMapKeys.GIT_URL;
 import static io.fabric8.forge.generator.git.AbstractGitRepoStep.importNewGitProject;
 import static io.fabric8.forge.generator.git.AbstractGitRepoStep.updateGitURLInJenkinsfile;
+import static io.fabric8.forge.generator.github.AbstractGitHubStep.publishRepositoryCreated;
 
 /**
  */
@@ -62,6 +65,9 @@ public class GitHubImportRepoStep extends AbstractDevToolsCommand implements UIW
      */
     private String branch = "master";
 
+    @Inject
+    private CacheFacade cacheManager;
+
     @Override
     public UICommandMetadata getMetadata(UIContext context) {
         return Metadata.forCommand(getClass()).name("Git Import Repo")
@@ -114,6 +120,7 @@ public class GitHubImportRepoStep extends AbstractDevToolsCommand implements UIW
             //String gitRepoDescription = gitRepoDescription.getValue();
             String gitRepoDescription = "";
             GHRepository repository = github.createRepository(org, repo, gitRepoDescription);
+            publishRepositoryCreated(cacheManager, github, org, repository);
             URL htmlUrl = repository.getHtmlUrl();
             if (htmlUrl != null) {
                 gitHtmlUrl = htmlUrl.toString();
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import io.fabric8.forge.generator.cache.Caches;
+import io.fabric8.forge.generator.git.GitOrganisationDTO;
+import org.infinispan.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * The single place the wizard steps get the github organisations of the current user from so that they are loaded
+ * once per user and shared by all the steps.
+ * <p>
+ * The organisations are loaded by {@link GitHubFacade#loadGitHubOrganisations()} which pages through
+ * <code>/user/orgs</code> and loads the details in parallel; the listing and details timings are recorded in the
+ * {@link GitHubFacade#ORGANISATIONS_LIST_METRICS} and {@link GitHubFacade#ORGANISATION_DETAILS_METRICS} metrics.
+ */
+public class GitHubOrganisationDirectory {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitHubOrganisationDirectory.class);
+
+    /**
+     * Returns the organisations of the user of the given facade, loading them if they are not cached yet
+     */
+    public static Collection<GitOrganisationDTO> getOrganisations(Cache<String, Collection<GitOrganisationDTO>> organisationsCache, GitHubFacade github) {
+        if (github == null || !github.isDetailsValid()) {
+            return new ArrayList<>();
+        }
+        String key = github.getDetails().getUserCacheKey();
+        try {
+            return Caches.computeIfAbsent(organisationsCache, key, k -> github.loadGitHubOrganisations());
+        } catch (RuntimeException e) {
+            // nothing was cached so lets just offer the personal account this time and try again next time
+            LOG.warn("Failed to load the github organisations of " + github.getDetails().getUsername() + ". " + e, e);
+            return github.getPersonalOrganisations();
+        }
+    }
+}
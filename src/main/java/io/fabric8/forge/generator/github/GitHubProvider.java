@@ -21,11 +21,15 @@ import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitProvider;
 import io.fabric8.forge.generator.git.GitSecretNames;
 import io.fabric8.forge.generator.git.WebHookDetails;
+import io.fabric8.forge.generator.git.WebHookStatusDTO;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
+import io.fabric8.forge.generator.utils.ParallelHelpers;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import org.jboss.forge.addon.ui.result.navigation.NavigationResultBuilder;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  */
@@ -84,4 +88,30 @@ public class GitHubProvider extends GitProvider {
             facade.createWebHook(webhook);
         }
     }
+
+    /**
+     * Registers the webhooks in parallel using a single client; once the rate limit budget of the user can no longer
+     * cover a registration we fail the remaining ones straight away rather than hitting the limit
+     */
+    @Override
+    public List<WebHookStatusDTO> registerWebHooks(GitAccount details, List<WebHookDetails> webhooks) {
+        if (!registerWebHooks) {
+            return new ArrayList<>();
+        }
+        GitHubFacade facade = new GitHubFacade(details);
+        GitHubRateLimit rateLimit = facade.getRateLimit();
+        return ParallelHelpers.map("register-webhook", webhooks, WEBHOOK_PARALLELISM, webhook -> {
+            String repoName = webhook.getRepositoryName();
+            long now = System.currentTimeMillis();
+            if (rateLimit != null && rateLimit.isKnown(now) && rateLimit.getRemaining() < GitHubFacade.WEBHOOK_REQUESTS) {
+                return WebHookStatusDTO.failed(repoName, "Not creating CI webhooks for: " + repoName
+                        + " as the github rate limit resets in " + rateLimit.getMillisUntilReset(now) / 1000 + "s");
+            }
+            try {
+                return WebHookStatusDTO.registered(repoName, facade.createWebHook(webhook));
+            } catch (Exception e) {
+                return WebHookStatusDTO.failed(repoName, "Failed to create CI webhooks for: " + repoName + ": " + e);
+            }
+        });
+    }
 }
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The last known github API rate limit budget of a single token along with how we scheduled its requests
+ */
+public class GitHubRateLimit implements GitHubRateLimitMBean {
+    private final String tokenId;
+    private volatile int limit = -1;
+    private volatile int remaining = -1;
+    private volatile long resetEpochSeconds;
+    private volatile long backOffUntilMillis;
+    private final LongAdder interactiveRequests = new LongAdder();
+    private final LongAdder backgroundRequests = new LongAdder();
+    private final LongAdder backgroundDelayed = new LongAdder();
+    private final LongAdder backgroundShed = new LongAdder();
+
+    public GitHubRateLimit(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    @Override
+    public String toString() {
+        return "GitHubRateLimit{" +
+                "tokenId='" + tokenId + '\'' +
+                ", limit=" + limit +
+                ", remaining=" + remaining +
+                ", resetEpochSeconds=" + resetEpochSeconds +
+                '}';
+    }
+
+    public synchronized void update(int limit, int remaining, long resetEpochSeconds) {
+        // responses can arrive out of order so only go up again once the window has been reset
+        if (resetEpochSeconds > this.resetEpochSeconds || this.remaining < 0 || remaining < this.remaining) {
+            this.limit = limit;
+            this.remaining = remaining;
+            this.resetEpochSeconds = resetEpochSeconds;
+        }
+    }
+
+    /**
+     * Returns true if we know the budget of the token and its current window has not been reset yet
+     */
+    public boolean isKnown(long nowMillis) {
+        return remaining >= 0 && resetEpochSeconds * 1000 > nowMillis;
+    }
+
+    /**
+     * Records that github asked us to back off, such as via the <code>Retry-After</code> header of a secondary rate
+     * limit response, until the given time
+     */
+    public synchronized void backOff(long untilMillis) {
+        backOffUntilMillis = Math.max(backOffUntilMillis, untilMillis);
+    }
+
+    /**
+     * Returns true if github is currently refusing requests from the token due to its rate limits
+     */
+    public boolean isLimited(long nowMillis) {
+        return backOffUntilMillis > nowMillis || (isKnown(nowMillis) && remaining == 0);
+    }
+
+    public long getMillisUntilReset(long nowMillis) {
+        return Math.max(0, resetEpochSeconds * 1000 - nowMillis);
+    }
+
+    public void recordInteractive() {
+        interactiveRequests.increment();
+    }
+
+    public void recordBackground() {
+        backgroundRequests.increment();
+    }
+
+    public void recordBackgroundDelayed() {
+        backgroundDelayed.increment();
+    }
+
+    public void recordBackgroundShed() {
+        backgroundShed.increment();
+    }
+
+    @Override
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getRemaining() {
+        return remaining;
+    }
+
+    @Override
+    public long getResetEpochSeconds() {
+        return resetEpochSeconds;
+    }
+
+    @Override
+    public long getInteractiveRequests() {
+        return interactiveRequests.sum();
+    }
+
+    @Override
+    public long getBackgroundRequests() {
+        return backgroundRequests.sum();
+    }
+
+    @Override
+    public long getBackgroundDelayed() {
+        return backgroundDelayed.sum();
+    }
+
+    @Override
+    public long getBackgroundShed() {
+        return backgroundShed.sum();
+    }
+}
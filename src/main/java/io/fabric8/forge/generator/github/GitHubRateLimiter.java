@@ -0,0 +1,223 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import io.fabric8.forge.generator.cache.Caches;
+import io.fabric8.forge.generator.kubernetes.UserIdentityResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Schedules github API requests based on the <code>X-RateLimit-*</code> headers of the last response for each token.
+ * <p>
+ * {@link GitHubRequestPriority#INTERACTIVE} requests are always sent straight away. Once a token has used most of
+ * its budget for the current window {@link GitHubRequestPriority#BACKGROUND} requests are spread out over the rest
+ * of the window and when only the reserve is left they fail fast so that the remaining budget is kept for users.
+ * <p>
+ * The budget of each token is exposed as a {@link GitHubRateLimitMBean}.
+ */
+public class GitHubRateLimiter implements Interceptor {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitHubRateLimiter.class);
+
+    public static final String OBJECT_NAME_PREFIX = "io.fabric8.forge.generator:type=GitHubRateLimit,token=";
+    public static final int DEFAULT_RESERVE_PERCENT = 10;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+    public static final int MAX_TOKENS = 1000;
+
+    private static final ThreadLocal<GitHubRequestPriority> priority = new ThreadLocal<>();
+
+    private final int reservePercent;
+    private final long maxDelayMillis;
+    private final Map<String, GitHubRateLimit> rateLimits = new LinkedHashMap<String, GitHubRateLimit>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GitHubRateLimit> eldest) {
+            if (size() > MAX_TOKENS) {
+                unregisterMBean(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public GitHubRateLimiter() {
+        this(DEFAULT_RESERVE_PERCENT, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    public GitHubRateLimiter(int reservePercent, long maxDelayMillis) {
+        this.reservePercent = reservePercent;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Invokes the given block with the given priority for any github requests it makes
+     */
+    public static <T> T withPriority(GitHubRequestPriority requestPriority, Supplier<T> block) {
+        GitHubRequestPriority old = priority.get();
+        priority.set(requestPriority);
+        try {
+            return block.get();
+        } finally {
+            if (old != null) {
+                priority.set(old);
+            } else {
+                priority.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the priority of requests made by the current thread; cache loads in the background default to
+     * {@link GitHubRequestPriority#BACKGROUND} and anything else to {@link GitHubRequestPriority#INTERACTIVE}
+     */
+    public static GitHubRequestPriority currentPriority() {
+        GitHubRequestPriority answer = priority.get();
+        if (answer == null) {
+            answer = Caches.isBackgroundLoad() ? GitHubRequestPriority.BACKGROUND : GitHubRequestPriority.INTERACTIVE;
+        }
+        return answer;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        GitHubRateLimit rateLimit = getRateLimit(request.header("Authorization"));
+        acquire(rateLimit, currentPriority(), request);
+        Response response = chain.proceed(request);
+        updateRateLimit(rateLimit, response);
+        return response;
+    }
+
+    /**
+     * Returns the rate limit for the given authorization header which is keyed by a hash so we don't keep tokens
+     */
+    public GitHubRateLimit getRateLimit(String authorization) {
+        String tokenId = authorization != null ? UserIdentityResolver.hashToken(authorization).substring(0, 16) : "anonymous";
+        synchronized (rateLimits) {
+            GitHubRateLimit answer = rateLimits.get(tokenId);
+            if (answer == null) {
+                answer = new GitHubRateLimit(tokenId);
+                rateLimits.put(tokenId, answer);
+                registerMBean(answer);
+            }
+            return answer;
+        }
+    }
+
+    protected void acquire(GitHubRateLimit rateLimit, GitHubRequestPriority requestPriority, Request request) throws IOException {
+        if (requestPriority == GitHubRequestPriority.INTERACTIVE) {
+            rateLimit.recordInteractive();
+            return;
+        }
+        rateLimit.recordBackground();
+        long now = System.currentTimeMillis();
+        if (rateLimit.isLimited(now)) {
+            rateLimit.recordBackgroundShed();
+            throw new RequestShedException("Not sending background github request " + request.method() + " " + request.urlString()
+                    + " as github is rate limiting the token");
+        }
+        if (!rateLimit.isKnown(now) || rateLimit.getLimit() <= 0) {
+            return;
+        }
+        int reserve = rateLimit.getLimit() * reservePercent / 100;
+        int spare = rateLimit.getRemaining() - reserve;
+        if (spare <= 0) {
+            rateLimit.recordBackgroundShed();
+            throw new RequestShedException("Not sending background github request " + request.method() + " " + request.urlString()
+                    + " as only " + rateLimit.getRemaining() + " requests remain until the rate limit resets in "
+                    + rateLimit.getMillisUntilReset(now) / 1000 + "s");
+        }
+        if (spare <= reserve) {
+            long delay = Math.min(maxDelayMillis, rateLimit.getMillisUntilReset(now) / spare);
+            if (delay > 0) {
+                rateLimit.recordBackgroundDelayed();
+                LOG.debug("Delaying background github request by " + delay + "ms as only " + rateLimit.getRemaining() + " requests remain");
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while delaying background github request");
+                }
+            }
+        }
+    }
+
+    protected void updateRateLimit(GitHubRateLimit rateLimit, Response response) {
+        String limit = response.header("X-RateLimit-Limit");
+        String remaining = response.header("X-RateLimit-Remaining");
+        String reset = response.header("X-RateLimit-Reset");
+        if (limit != null && remaining != null && reset != null) {
+            try {
+                rateLimit.update(Integer.parseInt(limit.trim()), Integer.parseInt(remaining.trim()), Long.parseLong(reset.trim()));
+            } catch (NumberFormatException e) {
+                LOG.debug("Ignoring invalid github rate limit headers. " + e, e);
+            }
+        }
+        String retryAfter = response.header("Retry-After");
+        if (response.code() == 403 && retryAfter != null) {
+            try {
+                rateLimit.backOff(System.currentTimeMillis() + Long.parseLong(retryAfter.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                LOG.debug("Ignoring invalid github Retry-After header. " + e, e);
+            }
+        }
+    }
+
+    protected void registerMBean(GitHubRateLimit rateLimit) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + rateLimit.getTokenId());
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(rateLimit, objectName);
+            }
+        } catch (Exception e) {
+            LOG.debug("Failed to register the github rate limit MBean. " + e, e);
+        }
+    }
+
+    protected void unregisterMBean(GitHubRateLimit rateLimit) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + rateLimit.getTokenId());
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            LOG.debug("Failed to unregister the github rate limit MBean. " + e, e);
+        }
+    }
+
+    /**
+     * Thrown when a background request is not sent to keep the reserve of the rate limit for interactive requests
+     */
+    public static class RequestShedException extends IOException {
+        public RequestShedException(String message) {
+            super(message);
+        }
+    }
+}
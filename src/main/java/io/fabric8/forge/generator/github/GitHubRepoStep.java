@@ -83,8 +83,7 @@ public class GitHubRepoStep extends AbstractGitHubStep implements UIWizardStep {
 
         Collection<GitOrganisationDTO> organisations = new ArrayList<>();
         if (github != null && github.isDetailsValid()) {
-            String orgKey = github.getDetails().getUserCacheKey();
-            organisations = organisationsCache.computeIfAbsent(orgKey, k -> github.loadGitHubOrganisations());
+            organisations = GitHubOrganisationDirectory.getOrganisations(organisationsCache, github);
         }
         gitOrganisation.setValueChoices(organisations);
         gitOrganisation.setItemLabelConverter(GitOrganisationDTO::getName);
@@ -157,6 +156,7 @@ public class GitHubRepoStep extends AbstractGitHubStep implements UIWizardStep {
         String gitHtmlUrl = null;
         try {
             GHRepository repository = github.createRepository(org, repo, gitRepoDescription.getValue());
+            publishRepositoryCreated(cacheManager, github, org, repository);
             URL htmlUrl = repository.getHtmlUrl();
             if (htmlUrl != null) {
                 gitHtmlUrl = htmlUrl.toString();
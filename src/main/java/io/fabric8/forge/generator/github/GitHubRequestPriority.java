@@ -0,0 +1,32 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+/**
+ * The priority of a github API request when the rate limit budget of a token is running low
+ */
+public enum GitHubRequestPriority {
+    /**
+     * A user is waiting on the request such as a validation or creating a repository; never delayed
+     */
+    INTERACTIVE,
+
+    /**
+     * The request prefetches or refreshes cached data; delayed or shed when the budget is low
+     */
+    BACKGROUND
+}
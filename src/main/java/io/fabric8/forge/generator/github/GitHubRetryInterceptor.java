@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import io.fabric8.forge.generator.utils.RetryPolicy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Retries idempotent github requests which fail with an I/O error or a server error so that a brief github
+ * brownout does not fail the wizard. Requests shed by the {@link GitHubRateLimiter} are not retried.
+ * <p>
+ * The github API connects via an {@link com.squareup.okhttp.OkUrlFactory} which skips application interceptors so
+ * this is {@link #install(OkHttpClient)}ed as the first network interceptor. As a network interceptor may only
+ * proceed once the retries are sent as new calls on a copy of the client without this interceptor.
+ */
+public class GitHubRetryInterceptor implements Interceptor {
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "PUT", "DELETE", "OPTIONS"));
+
+    private final RetryPolicy policy;
+    private OkHttpClient retryClient;
+
+    public GitHubRetryInterceptor() {
+        this(new RetryPolicy("github", 3, 250, 2000, GitHubRetryInterceptor::isRetryable));
+    }
+
+    public GitHubRetryInterceptor(RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    public static boolean isRetryable(Throwable e) {
+        return !(e instanceof GitHubRateLimiter.RequestShedException) && RetryPolicy.isTransientFailure(e);
+    }
+
+    public static boolean isServerError(Response response) {
+        int code = response.code();
+        return code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Adds this interceptor in front of the network interceptors of the client; call once the client is configured
+     */
+    public void install(OkHttpClient client) {
+        retryClient = client.clone();
+        client.networkInterceptors().add(0, this);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        OkHttpClient retries = retryClient;
+        if (retries == null || !IDEMPOTENT_METHODS.contains(request.method())) {
+            return chain.proceed(request);
+        }
+        AtomicBoolean first = new AtomicBoolean(true);
+        return policy.execute(() -> first.getAndSet(false) ? chain.proceed(request) : retries.newCall(request).execute(),
+                GitHubRetryInterceptor::isServerError, GitHubRetryInterceptor::closeQuietly);
+    }
+
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import io.fabric8.forge.generator.git.WebHookAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how the github webhooks were reconciled
+ */
+public class GitHubWebHookMetrics implements GitHubWebHookMetricsMBean {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitHubWebHookMetrics.class);
+
+    public static final String OBJECT_NAME = "io.fabric8.forge.generator:type=GitHubWebHooks";
+
+    private static final GitHubWebHookMetrics instance = new GitHubWebHookMetrics();
+
+    static {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(instance, objectName);
+            }
+        } catch (Exception e) {
+            LOG.debug("Failed to register the github webhook metrics MBean. " + e, e);
+        }
+    }
+
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder duplicatesDeleted = new LongAdder();
+
+    public static GitHubWebHookMetrics getInstance() {
+        return instance;
+    }
+
+    public void record(WebHookAction action) {
+        switch (action) {
+            case SKIPPED:
+                skipped.increment();
+                break;
+            case UPDATED:
+                updated.increment();
+                break;
+            case CREATED:
+                created.increment();
+                break;
+        }
+    }
+
+    public void recordDuplicateDeleted() {
+        duplicatesDeleted.increment();
+    }
+
+    @Override
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    @Override
+    public long getUpdated() {
+        return updated.sum();
+    }
+
+    @Override
+    public long getCreated() {
+        return created.sum();
+    }
+
+    @Override
+    public long getDuplicatesDeleted() {
+        return duplicatesDeleted.sum();
+    }
+
+    @Override
+    public void reset() {
+        skipped.reset();
+        updated.reset();
+        created.reset();
+        duplicatesDeleted.reset();
+    }
+}
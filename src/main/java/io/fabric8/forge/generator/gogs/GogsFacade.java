@@ -18,9 +18,13 @@ package io.fabric8.forge.generator.gogs;
 
 import io.fabric8.forge.generator.Configuration;
 import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.cache.CacheEvent;
+import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.git.EnvironmentVariablePrefixes;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitOrganisationDTO;
+import io.fabric8.forge.generator.git.GitRepositoryDTO;
+import io.fabric8.forge.generator.git.RepositoryAvailability;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.ServiceNames;
@@ -37,6 +41,7 @@ import org.jboss.forge.addon.ui.input.UIInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.NotFoundException;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.SortedSet;
@@ -53,6 +58,8 @@ public class GogsFacade {
     private final GitAccount details;
     private final String address;
     private GitRepoClientSupport gogs;
+    private RepositoryAvailability repositoryAvailability;
+    private CacheFacade cacheManager;
 
     public GogsFacade() {
         this(GitAccount.createViaEnvironmentVariables(EnvironmentVariablePrefixes.GOGS));
@@ -121,19 +128,47 @@ public class GogsFacade {
 
     public void validateRepositoryName(UIInput<String> input, UIValidationContext context, String orgName,
                                        String repoName) {
-        GitRepoClientSupport gogs = this.gogs;
         if (gogs != null) {
-            try {
-                RepositoryDTO repository = gogs.getRepository(orgName, repoName);
-                if (repository != null) {
-                    context.addValidationError(input, "The repository " + repoName + " already exists!");
-                }
-            } catch (Exception e) {
-                LOG.warn("Caught exception looking up  repository " + orgName + "/" + repoName + ". " + e, e);
+            Boolean exists;
+            if (repositoryAvailability != null) {
+                exists = repositoryAvailability.repositoryExists(orgName, repoName, () -> lookupRepositoryExists(orgName, repoName));
+            } else {
+                exists = lookupRepositoryExists(orgName, repoName);
+            }
+            if (exists != null && exists) {
+                context.addValidationError(input, "The repository " + repoName + " already exists!");
             }
         }
     }
 
+    /**
+     * Returns whether the repository exists or null if we could not find out
+     */
+    protected Boolean lookupRepositoryExists(String orgName, String repoName) {
+        try {
+            return gogs.getRepository(orgName, repoName) != null;
+        } catch (NotFoundException e) {
+            return false;
+        } catch (Exception e) {
+            LOG.warn("Caught exception looking up  repository " + orgName + "/" + repoName + ". " + e, e);
+            return null;
+        }
+    }
+
+    /**
+     * Sets the cache used to remember which repositories exist while the user types the repository name
+     */
+    public void setRepositoryAvailability(RepositoryAvailability repositoryAvailability) {
+        this.repositoryAvailability = repositoryAvailability;
+    }
+
+    /**
+     * Sets the cache manager which we tell about the repositories we create
+     */
+    public void setCacheManager(CacheFacade cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
     public UserDetails createUserDetails(String gitUrl) {
         return new UserDetails(gitUrl, gitUrl, details.getUsername(), details.tokenOrPassword(), details.getEmail());
     }
@@ -150,7 +185,13 @@ public class GogsFacade {
         if (Strings.isNotBlank(description)) {
             arguments.setDescription(description);
         }
-        return gogs.createRepository(arguments);
+        RepositoryDTO answer = gogs.createRepository(arguments);
+        if (cacheManager != null && isDetailsValid()) {
+            String owner = Strings.isNotBlank(orgName) ? orgName : details.getUsername();
+            cacheManager.publish(CacheEvent.repositoryCreated(RepositoryAvailability.GOGS, details.getUserCacheKey(), owner,
+                    new GitRepositoryDTO(repoName, description)));
+        }
+        return answer;
     }
 
     public boolean isDetailsValid() {
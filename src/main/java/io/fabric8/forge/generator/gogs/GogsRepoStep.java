@@ -10,10 +10,12 @@ package io.fabric8.forge.generator.gogs;
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.Configuration;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.cache.Caches;
 import io.fabric8.forge.generator.git.AbstractGitRepoStep;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitOrganisationDTO;
 import io.fabric8.forge.generator.git.GitSecretNames;
+import io.fabric8.forge.generator.git.RepositoryAvailability;
 import io.fabric8.forge.generator.kubernetes.CreateBuildConfigStep;
 import io.fabric8.project.support.UserDetails;
 import io.fabric8.repo.git.RepositoryDTO;
@@ -75,12 +77,17 @@ public class GogsRepoStep extends AbstractGitRepoStep implements UIWizardStep {
         super.initializeUI(builder);
 
         this.gogs = createGitFacade(builder.getUIContext());
+        if (cacheManager != null && gogs.isDetailsValid()) {
+            gogs.setRepositoryAvailability(new RepositoryAvailability(cacheManager.getCache(CacheNames.REPOSITORY_AVAILABILITY),
+                    RepositoryAvailability.GOGS, gogs.getDetails().getUserCacheKey()));
+            gogs.setCacheManager(cacheManager);
+        }
 
         // TODO cache this per user every say 30 seconds!
         Collection<GitOrganisationDTO> organisations = new ArrayList<>();
         if (gogs != null && gogs.isDetailsValid()) {
             String orgKey = gogs.getDetails().getUserCacheKey();
-            organisations = organisationsCache.computeIfAbsent(orgKey, k -> gogs.loadOrganisations(builder));
+            organisations = Caches.computeIfAbsent(organisationsCache, orgKey, k -> gogs.loadOrganisations(builder));
         }
         gitOrganisation.setValueChoices(organisations);
         gitOrganisation.setItemLabelConverter(organisation -> organisation.getName());
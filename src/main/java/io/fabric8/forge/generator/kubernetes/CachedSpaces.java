@@ -16,32 +16,43 @@
  */
 package io.fabric8.forge.generator.kubernetes;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
+ * The immutable spaces of a namespace which are cached per user and namespace
  */
-public class CachedSpaces {
-    private String namespace;
-    private List<SpaceDTO> spaces;
+public final class CachedSpaces implements Serializable {
+    private final String namespace;
+    private final List<SpaceDTO> spaces;
 
     public CachedSpaces(String namespace, List<SpaceDTO> spaces) {
         this.namespace = namespace;
-        this.spaces = spaces;
+        this.spaces = Collections.unmodifiableList(new ArrayList<>(spaces));
     }
 
-    public String getNamespace() {
-        return namespace;
+    /**
+     * Returns the cache key of the spaces of the given user and namespace
+     */
+    public static String cacheKey(String userCacheKey, String namespace) {
+        return userCacheKey + "/" + namespace;
     }
 
-    public List<SpaceDTO> getSpaces() {
-        return spaces;
+    @Override
+    public String toString() {
+        return "CachedSpaces{" +
+                "namespace='" + namespace + '\'' +
+                ", spaces=" + spaces.size() +
+                '}';
     }
 
-    public void setNamespace(String namespace) {
-        this.namespace = namespace;
+    public String getNamespace() {
+        return namespace;
     }
 
-    public void setSpaces(List<SpaceDTO> spaces) {
-        this.spaces = spaces;
+    public List<SpaceDTO> getSpaces() {
+        return spaces;
     }
 }
@@ -17,6 +17,7 @@
 package io.fabric8.forge.generator.kubernetes;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import io.fabric8.forge.generator.git.WebHookStatusDTO;
 
 import java.util.List;
 
@@ -34,6 +35,7 @@ public class CreateBuildConfigStatusDTO {
     private List<GitRepoDTO> gitRepositories;
     private String gitOwnerName;
     private List<String> warnings;
+    private List<WebHookStatusDTO> webHooks;
 
     public CreateBuildConfigStatusDTO() {
     }
@@ -60,6 +62,7 @@ public class CreateBuildConfigStatusDTO {
                 ", organisationJenkinsJobUrl='" + organisationJenkinsJobUrl + '\'' +
                 ", gitRepositoryNames=" + gitRepositoryNames +
                 ", gitOwnerName='" + gitOwnerName + '\'' +
+                ", webHooks=" + webHooks +
                 '}';
     }
 
@@ -127,6 +130,14 @@ public class CreateBuildConfigStatusDTO {
         this.warnings = warnings;
     }
 
+    public List<WebHookStatusDTO> getWebHooks() {
+        return webHooks;
+    }
+
+    public void setWebHooks(List<WebHookStatusDTO> webHooks) {
+        this.webHooks = webHooks;
+    }
+
     public List<GitRepoDTO> getGitRepositories() {
         return gitRepositories;
     }
@@ -20,20 +20,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Objects;
 import io.fabric8.forge.generator.Annotations;
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.cache.CacheEvent;
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.cache.Caches;
 import io.fabric8.forge.generator.che.CheStack;
 import io.fabric8.forge.generator.che.CheStackDetector;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitClonedRepoDetails;
 import io.fabric8.forge.generator.git.GitProvider;
 import io.fabric8.forge.generator.git.WebHookDetails;
+import io.fabric8.forge.generator.git.WebHookStatusDTO;
 import io.fabric8.forge.generator.pipeline.AbstractDevToolsCommand;
 import io.fabric8.forge.generator.tenant.NamespaceDTO;
 import io.fabric8.forge.generator.tenant.Tenants;
 import io.fabric8.forge.generator.utils.DomUtils;
 import io.fabric8.forge.generator.utils.MavenHelpers;
 import io.fabric8.forge.generator.utils.PomFileXml;
+import io.fabric8.forge.generator.utils.RetryPolicy;
 import io.fabric8.forge.generator.utils.WebClientHelpers;
 import io.fabric8.kubernetes.api.Controller;
 import io.fabric8.kubernetes.api.KubernetesHelper;
@@ -45,10 +49,12 @@ import io.fabric8.kubernetes.api.model.DoneableConfigMap;
 import io.fabric8.kubernetes.api.model.DoneableSecret;
 import io.fabric8.kubernetes.api.model.EnvVar;
 import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.api.model.SecretBuilder;
 import io.fabric8.kubernetes.api.model.SecretList;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.openshift.api.model.Build;
 import io.fabric8.openshift.api.model.BuildConfig;
@@ -105,12 +111,17 @@ import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static io.fabric8.forge.generator.keycloak.TokenHelper.getMandatoryAuthHeader;
 import static io.fabric8.forge.generator.kubernetes.Base64Helper.base64decode;
@@ -123,7 +134,19 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
     protected static final String GITHUB_SCM_NAVIGATOR_ELEMENT = "org.jenkinsci.plugins.github__branch__source.GitHubSCMNavigator";
     protected static final String REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT = "jenkins.scm.impl.trait.RegexSCMSourceFilterTrait";
 
+    public static final String WEBHOOK_SECRET_NAME = "fabric8-webhook-secret";
+    public static final String WEBHOOK_SECRET_KEY = "secret";
+    /**
+     * The annotation of the webhook secret recording when its value was last changed, in RFC 3339 format, so that
+     * webhooks are updated after a secret is rotated in place; otherwise the creation time of the secret is used
+     */
+    public static final String WEBHOOK_SECRET_UPDATED_ANNOTATION = "fabric8.io/secret-updated";
+
     private static final transient Logger LOG = LoggerFactory.getLogger(CreateBuildConfigStep.class);
+
+    protected static final RetryPolicy JENKINS_RETRY = new RetryPolicy("jenkins", 4, 1000, 10000, CreateBuildConfigStep::isJenkinsRetryable);
+    protected static final RetryPolicy JENKINS_POST_RETRY = new RetryPolicy("jenkins-post", 4, 1000, 10000, RetryPolicy::isConnectFailure);
+    protected static final RetryPolicy TRIGGER_BUILD_RETRY = new RetryPolicy("openshift-trigger-build", 5, 500, 4000, CreateBuildConfigStep::isTriggerBuildRetryable);
     protected Cache<String, List<NamespaceDTO>> namespacesCache;
     @Inject
     @WithAttributes(label = "Jenkins Space", required = true, description = "The space running Jenkins")
@@ -137,7 +160,6 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
     @Inject
     private CacheFacade cacheManager;
     private KubernetesClient kubernetesClient;
-    private int retryTriggerBuildCount = 5;
     private boolean useUiidForBotSecret = true;
     private List<NamespaceDTO> namespaces;
 
@@ -169,7 +191,7 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
         this.kubernetesClient = KubernetesClientHelper.createKubernetesClient(builder.getUIContext());
         this.namespacesCache = cacheManager.getCache(CacheNames.USER_NAMESPACES);
         final String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        this.namespaces = namespacesCache.computeIfAbsent(key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(builder.getUIContext())));
+        this.namespaces = Caches.computeIfAbsent(namespacesCache, key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(builder.getUIContext())));
 
         jenkinsSpace.setValueChoices(Tenants.jenkinsNamespaces(namespaces));
         if (!namespaces.isEmpty()) {
@@ -258,7 +280,46 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
             talkToJenkins = true;
         }
 
+        // lets find jenkins and the webhook secret before creating anything so that we don't leave BuildConfigs
+        // behind without their jenkins jobs and webhooks if either can't be found
+        String jenkinsUrl = null;
+        String botSecret = null;
+        Date botSecretUpdated = null;
+        if (addCI) {
+            String discoveryNamespace = KubernetesClientHelper.getDiscoveryNamespace(kubernetes, jenkinsNamespace);
+            try {
+                jenkinsUrl = KubernetesHelper.getServiceURL(kubernetes, ServiceNames.JENKINS, jenkinsNamespace, "https", true);
+                discoveryNamespace = jenkinsNamespace;
+            } catch (Exception e) {
+                if (!discoveryNamespace.equals(jenkinsNamespace)) {
+                    try {
+                        jenkinsUrl = KubernetesHelper.getServiceURL(kubernetes, ServiceNames.JENKINS, discoveryNamespace, "https", true);
+                    } catch (Exception e2) {
+                        throw new BadTenantException("Failed to find Jenkins URL in namespaces " + discoveryNamespace + " and " + jenkinsNamespace + ": " + e, e);
+                    }
+                }
+            }
+            if (Strings.isNullOrBlank(jenkinsUrl)) {
+                throw new BadTenantException("Failed to find Jenkins URL in namespace " + discoveryNamespace);
+            }
+
+            String botServiceAccount = "cd-bot";
+            Secret botSecretResource;
+            try {
+                botSecretResource = findBotSecret(discoveryNamespace, botServiceAccount);
+            } catch (Exception e) {
+                LOG.error("Failed to find the webhook secret in namespace " + discoveryNamespace + ": " + e, e);
+                return Results.fail("Failed to find the webhook secret in namespace " + discoveryNamespace + ": " + e, e);
+            }
+            botSecret = getWebHookSecretValue(botSecretResource);
+            botSecretUpdated = getSecretUpdated(botSecretResource);
+            if (Strings.isNullOrBlank(botSecret)) {
+                botSecret = "secret101";
+            }
+        }
+
         List<GitRepoDTO> gitRepos = getGitRepos(uiContext, gitRepoNameValue);
+        List<String> createdRepoNames = new ArrayList<>();
         StringBuilder messageBuilder = new StringBuilder();
         for (GitRepoDTO gitRepo : gitRepos) {
             String gitUrl = gitRepo.getUrl();
@@ -338,37 +399,21 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
                 }
             }
             controller.applyBuildConfig(buildConfig, "from project " + projectName);
+            createdRepoNames.add(gitRepoNameValue);
 
             messageBuilder.append("Created OpenShift BuildConfig ").append(namespace).append("/").append(projectName);
         }
+        if (!createdRepoNames.isEmpty()) {
+            String gitUserCacheKey = GitAccount.isValid(details) ? details.getUserCacheKey() : null;
+            cacheManager.publish(CacheEvent.buildConfigsCreated(KubernetesClientHelper.getUserCacheKey(kubernetesClient),
+                    namespace, gitUserCacheKey, gitOwnerName, createdRepoNames));
+        }
 
         message = messageBuilder.toString();
         List<String> warnings = new ArrayList<>();
+        List<WebHookStatusDTO> webHookStatuses = null;
 
         if (addCI) {
-            String discoveryNamespace = KubernetesClientHelper.getDiscoveryNamespace(kubernetes, jenkinsNamespace);
-            String jenkinsUrl = null;
-            try {
-                jenkinsUrl = KubernetesHelper.getServiceURL(kubernetes, ServiceNames.JENKINS, jenkinsNamespace, "https", true);
-                discoveryNamespace = jenkinsNamespace;
-            } catch (Exception e) {
-                if (!discoveryNamespace.equals(jenkinsNamespace)) {
-                    try {
-                        jenkinsUrl = KubernetesHelper.getServiceURL(kubernetes, ServiceNames.JENKINS, discoveryNamespace, "https", true);
-                    } catch (Exception e2) {
-                        throw new BadTenantException("Failed to find Jenkins URL in namespaces " + discoveryNamespace + " and " + jenkinsNamespace + ": " + e, e);
-                    }
-                }
-            }
-            if (Strings.isNullOrBlank(jenkinsUrl)) {
-                throw new BadTenantException("Failed to find Jenkins URL in namespace " + discoveryNamespace);
-            }
-
-            String botServiceAccount = "cd-bot";
-            String botSecret = findBotSecret(discoveryNamespace, botServiceAccount);
-            if (Strings.isNullOrBlank(botSecret)) {
-                botSecret = "secret101";
-            }
             String oauthToken = kubernetes.getConfiguration().getOauthToken();
             String authHeader = "Bearer " + oauthToken;
 
@@ -416,16 +461,23 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
                 triggerBuild(openShiftClient, namespace, projectName);
             }
 
+            List<WebHookDetails> webhooks = new ArrayList<>();
             for (String gitRepoName : gitRepoNameList) {
-                try {
-                    gitProvider.registerWebHook(details, new WebHookDetails(gitOwnerName, gitRepoName, webhookUrl, botSecret));
-                    //registerGitWebHook(details, webhookUrl, gitOwnerName, gitRepoName, botSecret);
-                } catch (Exception e) {
-                    addWarning(warnings, "Failed to create CI webhooks for: " + gitRepoName + ": " + e, e);
+                WebHookDetails webhook = new WebHookDetails(gitOwnerName, gitRepoName, webhookUrl, botSecret);
+                webhook.setSecretUpdated(botSecretUpdated);
+                webhooks.add(webhook);
+            }
+            webHookStatuses = gitProvider.registerWebHooks(details, webhooks);
+            List<String> registeredRepoNames = new ArrayList<>();
+            for (WebHookStatusDTO webHookStatus : webHookStatuses) {
+                if (webHookStatus.isRegistered()) {
+                    registeredRepoNames.add(webHookStatus.getRepoName());
+                } else {
+                    warnings.add(webHookStatus.getMessage());
                 }
             }
-            if (!gitRepoNameList.isEmpty()) {
-                message += " and added git webhooks to repositories " + Strings.join(gitRepoNameList, ", ");
+            if (!registeredRepoNames.isEmpty()) {
+                message += " and added git webhooks to repositories " + Strings.join(registeredRepoNames, ", ");
             }
             message += ". ";
         }
@@ -434,6 +486,7 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
             gitUrl = gitRepos.get(0).getUrl();
         }
         CreateBuildConfigStatusDTO status = new CreateBuildConfigStatusDTO(namespace, projectName, gitUrl, cheStackId, jenkinsJobUrl, gitRepoNameList, gitRepos, gitOwnerName, warnings);
+        status.setWebHooks(webHookStatuses);
         return Results.success(message, status);
     }
 
@@ -508,6 +561,80 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
         }
     }
 
+    /**
+     * Returns the random webhook secret stored in the namespace, creating it on first use, so that the webhooks of
+     * each import use the same secret and existing webhooks don't need to be updated. If the secret cannot be looked
+     * up we fail rather than registering webhooks with a secret jenkins does not know about.
+     */
+    private Secret findOrCreateWebHookSecret(String namespace) {
+        KubernetesClient kubernetes = getKubernetesClient();
+        Resource<Secret, DoneableSecret> secretResource = kubernetes.secrets().inNamespace(namespace).withName(WEBHOOK_SECRET_NAME);
+        Secret answer;
+        try {
+            answer = secretResource.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to lookup secret " + namespace + "/" + WEBHOOK_SECRET_NAME + ". " + e, e);
+        }
+        if (Strings.isNotBlank(getSecretData(answer, WEBHOOK_SECRET_KEY))) {
+            return answer;
+        }
+        String secret = UUID.randomUUID().toString();
+        try {
+            LOG.info("Creating Secret " + namespace + "/" + WEBHOOK_SECRET_NAME);
+            return secretResource.create(new SecretBuilder().
+                    withNewMetadata().withName(WEBHOOK_SECRET_NAME).addToLabels("creator", "fabric8").endMetadata().
+                    addToData(WEBHOOK_SECRET_KEY, Base64Helper.base64encode(secret)).
+                    build());
+        } catch (Exception e) {
+            // another request may have created it concurrently so lets use its value
+            LOG.debug("Failed to create Secret " + namespace + "/" + WEBHOOK_SECRET_NAME + " due to: " + e, e);
+            try {
+                answer = secretResource.get();
+            } catch (Exception e2) {
+                throw new IllegalStateException("Failed to lookup secret " + namespace + "/" + WEBHOOK_SECRET_NAME + ". " + e2, e2);
+            }
+            if (Strings.isNotBlank(getSecretData(answer, WEBHOOK_SECRET_KEY))) {
+                return answer;
+            }
+            throw new IllegalStateException("Failed to create secret " + namespace + "/" + WEBHOOK_SECRET_NAME + ". " + e, e);
+        }
+    }
+
+    /**
+     * Returns the decoded webhook secret or service account token of the given secret
+     */
+    private static String getWebHookSecretValue(Secret secret) {
+        String value = getSecretData(secret, WEBHOOK_SECRET_KEY);
+        if (Strings.isNullOrBlank(value)) {
+            value = getSecretData(secret, "token");
+        }
+        return Strings.isNotBlank(value) ? base64decode(value) : null;
+    }
+
+    /**
+     * Returns when the value of the given secret last changed or null if we don't know
+     */
+    protected static Date getSecretUpdated(Secret secret) {
+        ObjectMeta metadata = secret != null ? secret.getMetadata() : null;
+        if (metadata == null) {
+            return null;
+        }
+        Map<String, String> annotations = metadata.getAnnotations();
+        String timestamp = annotations != null ? annotations.get(WEBHOOK_SECRET_UPDATED_ANNOTATION) : null;
+        if (Strings.isNullOrBlank(timestamp)) {
+            timestamp = metadata.getCreationTimestamp();
+        }
+        if (Strings.isNullOrBlank(timestamp)) {
+            return null;
+        }
+        try {
+            return Date.from(Instant.parse(timestamp.trim()));
+        } catch (DateTimeParseException e) {
+            LOG.warn("Invalid timestamp " + timestamp + " on secret " + KubernetesHelper.getName(secret) + ". " + e, e);
+            return null;
+        }
+    }
+
     private static String getSecretData(Secret secret, String key) {
         if (secret != null) {
             Map<String, String> data = secret.getData();
@@ -525,31 +652,21 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
     }
 
     protected void triggerBuild(OpenShiftClient openShiftClient, String namespace, String projectName) {
-        for (int i = 0; i < retryTriggerBuildCount; i++) {
-            if (i > 0) {
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    // ignore
-                }
-            }
-            String triggeredBuildName;
-            BuildRequest request = new BuildRequestBuilder().
-                    withNewMetadata().withName(projectName).endMetadata().
-                    addNewTriggeredBy().withMessage("Forge triggered").endTriggeredBy().
-                    build();
-            try {
-                Build build = openShiftClient.buildConfigs().inNamespace(namespace).withName(projectName).instantiate(request);
-                if (build != null) {
-                    triggeredBuildName = KubernetesHelper.getName(build);
-                    LOG.info("Triggered build " + triggeredBuildName);
-                    return;
-                } else {
-                    LOG.error("Failed to trigger build for " + namespace + "/" + projectName + " du to: no Build returned");
-                }
-            } catch (Exception e) {
-                LOG.error("Failed to trigger build for " + namespace + "/" + projectName + " due to: " + e, e);
+        BuildRequest request = new BuildRequestBuilder().
+                withNewMetadata().withName(projectName).endMetadata().
+                addNewTriggeredBy().withMessage("Forge triggered").endTriggeredBy().
+                build();
+        try {
+            // the BuildConfig has only just been created so it may not be ready to instantiate yet
+            Build build = TRIGGER_BUILD_RETRY.execute(() -> openShiftClient.buildConfigs().inNamespace(namespace).withName(projectName).instantiate(request),
+                    Objects::isNull);
+            if (build != null) {
+                LOG.info("Triggered build " + KubernetesHelper.getName(build));
+            } else {
+                LOG.error("Failed to trigger build for " + namespace + "/" + projectName + " du to: no Build returned");
             }
+        } catch (Exception e) {
+            LOG.error("Failed to trigger build for " + namespace + "/" + projectName + " due to: " + e, e);
         }
     }
 
@@ -596,11 +713,11 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
     }
 
     /**
-     * Finds the secret token we should use for the web hooks
+     * Finds the secret containing the token we should use for the web hooks
      */
-    private String findBotSecret(String discoveryNamespace, String botServiceAccount) {
+    private Secret findBotSecret(String discoveryNamespace, String botServiceAccount) {
         if (useUiidForBotSecret) {
-            return UUID.randomUUID().toString();
+            return findOrCreateWebHookSecret(discoveryNamespace);
         } else {
             KubernetesClient kubernetes = getKubernetesClient();
             SecretList list = kubernetes.secrets().inNamespace(discoveryNamespace).list();
@@ -609,14 +726,8 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
                 if (items != null) {
                     for (Secret item : items) {
                         String name = KubernetesHelper.getName(item);
-                        if (name.startsWith(botServiceAccount + "-token-")) {
-                            Map<String, String> data = item.getData();
-                            if (data != null) {
-                                String token = data.get("token");
-                                if (token != null) {
-                                    return base64decode(token);
-                                }
-                            }
+                        if (name.startsWith(botServiceAccount + "-token-") && getSecretData(item, "token") != null) {
+                            return item;
                         }
                     }
                 }
@@ -656,10 +767,11 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
 
         Client client = WebClientHelpers.createClientWihtoutHostVerification();
         try {
-            Response response = client.target(triggerUrl).
+            String url = triggerUrl;
+            Response response = invokeJenkins(url, false, () -> client.target(url).
                     request().
                     header("Authorization", authHeader).
-                    post(Entity.text(null), Response.class);
+                    post(Entity.text(null), Response.class));
 
             int status = response.getStatus();
             String message = null;
@@ -683,10 +795,10 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
     protected JsonNode parseLastBuildJson(String authHeader, String urlText) {
         Client client = WebClientHelpers.createClientWihtoutHostVerification();
         try {
-            Response response = client.target(urlText).
+            Response response = invokeJenkins(urlText, false, () -> client.target(urlText).
                     request().
                     header("Authorization", authHeader).
-                    post(Entity.text(null), Response.class);
+                    post(Entity.text(null), Response.class));
 
             int status = response.getStatus();
             String message = null;
@@ -723,9 +835,10 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
 
         try {
             client = WebClientHelpers.createClientWihtoutHostVerification();
-            response = client.target(getUrl).
+            Client lookupClient = client;
+            response = invokeJenkins(getUrl, true, () -> lookupClient.target(getUrl).
                     request(MediaType.APPLICATION_JSON).
-                    header("Authorization", authHeader).get(Response.class);
+                    header("Authorization", authHeader).get(Response.class));
 
             int status = response.getStatus();
             String message = null;
@@ -772,9 +885,10 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
 
         try {
             client = WebClientHelpers.createClientWihtoutHostVerification();
-            response = client.target(createUrl).request().
+            Client createClient = client;
+            response = invokeJenkins(createUrl, false, () -> createClient.target(createUrl).request().
                     header("Authorization", authHeader).
-                    post(Entity.form(form), Response.class);
+                    post(Entity.form(form), Response.class));
 
             int status = response.getStatus();
             String message = null;
@@ -879,7 +993,7 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
 
         Document document = null;
         try {
-            Response response = invokeRequestWithRedirectResponse(getUrl,
+            Response response = invokeRequestWithRedirectResponse(getUrl, true,
                     target -> target.request(MediaType.TEXT_XML).
                             header("Authorization", authHeader).
                             get(Response.class));
@@ -906,7 +1020,7 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
         Response answer;
         if (create) {
             try {
-                answer = invokeRequestWithRedirectResponse(createUrl,
+                answer = invokeRequestWithRedirectResponse(createUrl, false,
                         target -> target.request(MediaType.TEXT_XML).
                                 header("Authorization", authHeader).
                                 post(entity, Response.class));
@@ -915,7 +1029,7 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
             }
         } else {
             try {
-                answer = invokeRequestWithRedirectResponse(getUrl,
+                answer = invokeRequestWithRedirectResponse(getUrl, false,
                         target -> target.request(MediaType.TEXT_XML).
                                 header("Authorization", authHeader).
                                 post(entity, Response.class));
@@ -977,7 +1091,51 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
         return githubNavigator;
     }
 
-    protected Response invokeRequestWithRedirectResponse(String url, Function<WebTarget, Response> callback) {
+    protected Response invokeRequestWithRedirectResponse(String url, boolean idempotent, Function<WebTarget, Response> callback) {
+        return jenkinsRetry(url, idempotent).execute(() -> invokeRequestFollowingRedirect(url, callback));
+    }
+
+    /**
+     * Invokes a jenkins request; idempotent requests are retried on connection failures, timeouts and the gateway
+     * errors returned while jenkins is being unidled whereas other requests are only retried if we could not connect
+     * as jenkins may have acted on a request which timed out
+     */
+    protected static Response invokeJenkins(String url, boolean idempotent, Supplier<Response> request) {
+        if (!idempotent) {
+            return jenkinsRetry(url, false).execute(request::get);
+        }
+        return jenkinsRetry(url, true).execute(request::get, CreateBuildConfigStep::isJenkinsUnavailable, Response::close);
+    }
+
+    /**
+     * Returns the retry policy for the request which has its own retry budget for each jenkins host
+     */
+    protected static RetryPolicy jenkinsRetry(String url, boolean idempotent) {
+        RetryPolicy policy = idempotent ? JENKINS_RETRY : JENKINS_POST_RETRY;
+        return policy.forTarget(RetryPolicy.hostOf(url));
+    }
+
+    protected static boolean isJenkinsUnavailable(Response response) {
+        int status = response.getStatus();
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    protected static boolean isJenkinsRetryable(Throwable e) {
+        if (e instanceof WebApplicationException) {
+            Response response = ((WebApplicationException) e).getResponse();
+            return response != null && isJenkinsUnavailable(response);
+        }
+        return RetryPolicy.isTransientFailure(e);
+    }
+
+    protected static boolean isTriggerBuildRetryable(Throwable e) {
+        if (e instanceof KubernetesClientException && ((KubernetesClientException) e).getCode() == 404) {
+            return true;
+        }
+        return RetryPolicy.isTransientFailure(e);
+    }
+
+    private Response invokeRequestFollowingRedirect(String url, Function<WebTarget, Response> callback) {
         boolean redirected = false;
         Response response = null;
         for (int i = 0, retries = 2; i < retries; i++) {
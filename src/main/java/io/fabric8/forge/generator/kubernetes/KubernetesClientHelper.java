@@ -124,15 +124,20 @@ public class KubernetesClientHelper {
     }
 
     /**
-     * Returns a unique key specific to the current user request
+     * Returns a unique key for the current user which stays the same across token refreshes
      */
     public static String getUserCacheKey(KubernetesClient kubernetesClient) {
-        String answer = kubernetesClient.getConfiguration().getOauthToken();
-        if (Strings.isNotBlank(answer)) {
-            return answer;
+        String token = kubernetesClient.getConfiguration().getOauthToken();
+        if (Strings.isNotBlank(token)) {
+            return UserIdentityResolver.resolveUserId(token, () -> getOpenShiftClientOrNull(kubernetesClient));
         }
-        LOG.warn("Could not find the OAuthToken to use as a user cache key!");
-        return "TODO";
+        // on premise we use the same service account for all requests
+        String userName = kubernetesClient.getConfiguration().getUsername();
+        if (Strings.isNotBlank(userName)) {
+            return "user/" + userName;
+        }
+        // sharing a key would share the cached credentials of one user with everyone else
+        throw new IllegalStateException("Could not find the OAuthToken or user name to use as a user cache key");
     }
 
     /**
@@ -18,11 +18,13 @@ package io.fabric8.forge.generator.kubernetes;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.io.Serializable;
+
 /**
  * for listing spaces
  */
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
-public class SpaceDTO {
+public class SpaceDTO implements Serializable {
     private String id;
     private String label;
 
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.openshift.api.model.User;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Resolves an OAuth token to a compact user id which stays the same when the token is refreshed so that it can be
+ * used as the key of the per user caches.
+ * <p>
+ * The user is resolved via an authenticated OpenShift <code>users/~</code> call, as the claims of a token cannot be
+ * trusted without checking its signature; if OpenShift does not know the token the hash of the token is used instead.
+ * The resolved ids are cached by the SHA-256 hash of the token, so we never hold onto the tokens themselves, for a
+ * default TTL or until the token expires if sooner.
+ */
+public class UserIdentityResolver {
+    private static final transient Logger LOG = LoggerFactory.getLogger(UserIdentityResolver.class);
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    public static final int MAX_IDENTITIES = 10000;
+
+    private static final Map<String, Identity> identities = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the stable user id for the given token; the OpenShift client is only used on a cache miss
+     */
+    public static String resolveUserId(String token, Supplier<OpenShiftClient> openShiftClient) {
+        String tokenHash = hashToken(token);
+        long now = System.currentTimeMillis();
+        Identity identity = identities.get(tokenHash);
+        if (identity != null && identity.expiresAt > now) {
+            return identity.userId;
+        }
+        identity = loadIdentity(token, tokenHash, openShiftClient, now);
+        if (identities.size() >= MAX_IDENTITIES) {
+            removeExpired(now);
+        }
+        identities.put(tokenHash, identity);
+        return identity.userId;
+    }
+
+    protected static Identity loadIdentity(String token, String tokenHash, Supplier<OpenShiftClient> openShiftClientSupplier, long now) {
+        long expiresAt = expiresAt(token, now);
+        try {
+            // the claims of a token are only trusted once OpenShift has authenticated it
+            OpenShiftClient openShiftClient = openShiftClientSupplier.get();
+            if (openShiftClient != null) {
+                User user = openShiftClient.users().withName("~").get();
+                if (user != null) {
+                    String uid = user.getMetadata() != null ? user.getMetadata().getUid() : null;
+                    if (Strings.isNullOrBlank(uid)) {
+                        uid = KubernetesHelper.getName(user);
+                    }
+                    if (Strings.isNotBlank(uid)) {
+                        return new Identity("user/" + uid, expiresAt);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to find the current OpenShift user so using the token hash as the cache key. " + e, e);
+        }
+        return new Identity("token/" + tokenHash, expiresAt);
+    }
+
+    /**
+     * Returns when the resolved identity should expire; the default TTL or earlier if a JWT token expires sooner.
+     * The claims are not verified here so they can only shorten the TTL.
+     */
+    protected static long expiresAt(String token, long now) {
+        long answer = now + DEFAULT_TTL_MILLIS;
+        try {
+            Date expiresAt = JWT.decode(token).getExpiresAt();
+            if (expiresAt != null) {
+                answer = Math.min(answer, expiresAt.getTime());
+            }
+        } catch (JWTDecodeException e) {
+            // an opaque token
+        }
+        return answer;
+    }
+
+    protected static void removeExpired(long now) {
+        Iterator<Identity> iter = identities.values().iterator();
+        while (iter.hasNext()) {
+            if (iter.next().expiresAt <= now) {
+                iter.remove();
+            }
+        }
+        if (identities.size() >= MAX_IDENTITIES) {
+            identities.clear();
+        }
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 hash of the given token
+     */
+    public static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+                builder.append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No SHA-256 support: " + e, e);
+        }
+    }
+
+    protected static class Identity {
+        private final String userId;
+        private final long expiresAt;
+
+        public Identity(String userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
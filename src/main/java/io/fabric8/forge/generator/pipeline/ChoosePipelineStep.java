@@ -22,6 +22,7 @@ import io.fabric8.forge.addon.utils.StopWatch;
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.cache.Caches;
 import io.fabric8.forge.generator.git.GitClonedRepoDetails;
 import io.fabric8.forge.generator.github.AbstractGitHubStep;
 import io.fabric8.forge.generator.github.GitHubFacade;
@@ -104,6 +105,7 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
     @Inject
     private CacheFacade cacheManager;
     private KubernetesClient kubernetesClient;
+    private String userCacheKey;
     private String namespace = KubernetesHelper.defaultNamespace();
 
     private boolean hasJenkinsFile;
@@ -142,12 +144,13 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
     @Override
     public void initializeUI(UIBuilder builder) throws Exception {
         UIContext uiContext = builder.getUIContext();
-        this.github = AbstractGitHubStep.createGitHubFacade(uiContext, null);
+        this.github = AbstractGitHubStep.createGitHubFacade(uiContext, null, cacheManager);
         this.kubernetesClient = KubernetesClientHelper.createKubernetesClient(uiContext);
         this.namespacesCache = cacheManager.getCache(CacheNames.USER_NAMESPACES);
         this.spacesCache = cacheManager.getCache(CacheNames.USER_SPACES);
         final String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        List<NamespaceDTO> namespaces = namespacesCache.computeIfAbsent(key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(uiContext)));
+        List<NamespaceDTO> namespaces = Caches.computeIfAbsent(namespacesCache, key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(uiContext)));
+        this.userCacheKey = key;
 
         StopWatch watch = new StopWatch();
 
@@ -187,6 +190,17 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
             builder.add(kubernetesSpace);
         }
 
+        // the spaces are only loaded if the user asks for completions
+        labelSpace.setCompleter((context1, input, value) -> {
+            List<String> answer = new ArrayList<>();
+            for (SpaceDTO space : loadCachedSpaces(userCacheKey)) {
+                String id = space.getId();
+                if (Strings.isNullOrBlank(value) || (id != null && id.startsWith(value))) {
+                    answer.add(id);
+                }
+            }
+            return answer;
+        });
         builder.add(labelSpace);
 
         // set the list of repositories
@@ -198,14 +212,9 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
         organisation = (String)attributeMap.get(AttributeMapKeys.GIT_ORGANISATION);
         if (isImportRepositoryFlow(attributeMap)) { // we want to target import repo flow only
             // search if any jenkins files
-            ArrayList<String> reposNameWithJenkinsFile = new ArrayList<>();
             String warning = null;
             if (repositoryNames != null) {
-                for (String repoName : repositoryNames) {
-                    if (github.hasFile(organisation, repoName, "Jenkinsfile")) {
-                        reposNameWithJenkinsFile.add(repoName);
-                    }
-                }
+                List<String> reposNameWithJenkinsFile = github.findRepositoriesWithFile(organisation, repositoryNames, "Jenkinsfile");
                 if (reposNameWithJenkinsFile.size() > 0) {
                     warning = formatRepoName(reposNameWithJenkinsFile);
                 }
@@ -230,14 +239,17 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
 
     private List<SpaceDTO> loadCachedSpaces(String key) {
         String namespace = kubernetesSpace.getValue();
-        CachedSpaces cachedSpaces = spacesCache.computeIfAbsent(key, k -> new CachedSpaces(namespace, KubernetesClientHelper.loadSpaces(this.kubernetesClient, namespace)));
-        if (!cachedSpaces.getNamespace().equals(namespace)) {
-            cachedSpaces.setNamespace(namespace);
-            cachedSpaces.setSpaces(KubernetesClientHelper.loadSpaces(this.kubernetesClient, namespace));
+        if (Strings.isNullOrBlank(namespace)) {
+            return new ArrayList<>();
         }
+        CachedSpaces cachedSpaces = Caches.computeIfAbsent(spacesCache, CachedSpaces.cacheKey(key, namespace), k -> loadSpaces(namespace));
         return cachedSpaces.getSpaces();
     }
 
+    private CachedSpaces loadSpaces(String namespace) {
+        return new CachedSpaces(namespace, KubernetesClientHelper.loadSpaces(this.kubernetesClient, namespace));
+    }
+
     private boolean hasLocalJenkinsFile(UIContext context, Project project) {
         File jenkinsFile = CommandHelpers.getProjectContextFile(context, project, "Jenkinsfile");
         boolean hasJenkinsFile = Files.isFile(jenkinsFile);
@@ -245,7 +257,7 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
         return hasJenkinsFile;
     }
 
-    private String formatRepoName(ArrayList<String> reposNameWithJenkinsFile) {
+    private String formatRepoName(List<String> reposNameWithJenkinsFile) {
         StringBuilder formattedRepos= new StringBuilder();
         formattedRepos.append("(");
         for (String repoName : reposNameWithJenkinsFile) {
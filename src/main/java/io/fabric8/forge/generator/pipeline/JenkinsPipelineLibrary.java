@@ -17,6 +17,7 @@
 package io.fabric8.forge.generator.pipeline;
 
 import io.fabric8.forge.addon.utils.StopWatch;
+import io.fabric8.forge.generator.git.GitMirrorCache;
 import io.fabric8.project.support.GitUtils;
 import io.fabric8.project.support.UserDetails;
 import io.fabric8.utils.Files;
@@ -36,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
+import java.util.Collections;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -86,13 +88,19 @@ public class JenkinsPipelineLibrary {
         boolean cloneAll = true;
         LOG.info("Cloning git repo " + cloneUrl + " into directory " + projectFolder.getAbsolutePath()
                 + " cloneAllBranches: " + cloneAll);
-        CloneCommand command = Git.cloneRepository();
-        GitUtils.configureCommand(command, credentialsProvider, sshPrivateKey, sshPublicKey);
-        command = command.setCredentialsProvider(credentialsProvider).
-                setCloneAllBranches(cloneAll).setURI(cloneUrl).setDirectory(projectFolder).setRemote(remote);
-
         try {
-            Git git = command.call();
+            // the library is public and cloned all the time so lets always clone it from the local mirror
+            GitMirrorCache mirrorCache = GitMirrorCache.getInstance();
+            mirrorCache.alwaysMirror(cloneUrl);
+            Git git = mirrorCache.cloneRepository(cloneUrl, projectFolder, remote, uri -> {
+                CloneCommand command = Git.cloneRepository();
+                GitUtils.configureCommand(command, credentialsProvider, sshPrivateKey, sshPublicKey);
+                return command.setCredentialsProvider(credentialsProvider).
+                        setCloneAllBranches(cloneAll).setURI(uri).setDirectory(projectFolder).setRemote(remote);
+            }, fetch -> {
+                GitUtils.configureCommand(fetch, credentialsProvider, sshPrivateKey, sshPublicKey);
+                fetch.setCredentialsProvider(credentialsProvider);
+            }, Collections.emptyList(), null);
             if (tag != null) {
                 git.checkout().setName(tag).call();
             }
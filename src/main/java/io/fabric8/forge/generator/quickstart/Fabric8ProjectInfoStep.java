@@ -21,6 +21,7 @@ import io.fabric8.forge.generator.cache.CacheNames;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitOrganisationDTO;
 import io.fabric8.forge.generator.github.GitHubFacade;
+import io.fabric8.forge.generator.github.GitHubOrganisationDirectory;
 import io.fabric8.forge.generator.github.GitHubImportParameters;
 import io.fabric8.utils.Strings;
 import io.openshift.launchpad.ui.booster.DeploymentType;
@@ -101,11 +102,10 @@ public class Fabric8ProjectInfoStep extends ProjectInfoStep {
         this.githubAccountCache = cacheManager.getCache(CacheNames.GITHUB_ACCOUNT_FROM_SECRET);
         this.organisationsCache = cacheManager.getCache(organisationsCacheKey);
 
-        this.github = createGitHubFacade(uiContext, githubAccountCache);
+        this.github = createGitHubFacade(uiContext, githubAccountCache, cacheManager);
 
         if (github != null && github.isDetailsValid()) {
-            String orgKey = github.getDetails().getUserCacheKey();
-            organisations = organisationsCache.computeIfAbsent(orgKey, k -> github.loadGitHubOrganisations());
+            organisations = GitHubOrganisationDirectory.getOrganisations(organisationsCache, github);
         }
         gitOrganisation.setValueChoices(organisations);
         gitOrganisation.setItemLabelConverter(GitOrganisationDTO::getName);
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import io.fabric8.forge.generator.cache.Caches;
+import io.fabric8.forge.generator.github.GitHubRateLimiter;
+import io.fabric8.forge.generator.github.GitHubRequestPriority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Helper methods for invoking a number of blocking remote calls with bounded parallelism
+ * <p>
+ * All the calls share a single pool of at most {@link #MAX_THREADS} threads so that concurrent wizards can't create
+ * an unbounded number of threads or connections to the same host.
+ */
+public class ParallelHelpers {
+    public static final int MAX_THREADS = 32;
+    public static final int MAX_QUEUE_SIZE = 1000;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    /**
+     * Invokes the function on each item using at most the given number of threads, returning the results in the
+     * same order as the items.
+     * <p>
+     * The calling thread works through the items too so that the items are still processed if the shared threads
+     * are all busy, such as when they are themselves waiting on a nested call.
+     * <p>
+     * If any invocation fails the first failure is thrown once all of the invocations have completed.
+     * <p>
+     * The github request priority and whether the caller is a background cache load are passed on to the threads
+     * so that a background crawl stays a background crawl.
+     */
+    public static <T, R> List<R> map(String threadName, List<T> items, int parallelism, Function<? super T, ? extends R> function) {
+        List<R> answer = new ArrayList<>(items.size());
+        if (items.isEmpty()) {
+            return answer;
+        }
+        if (items.size() == 1 || parallelism <= 1) {
+            for (T item : items) {
+                answer.add(function.apply(item));
+            }
+            return answer;
+        }
+        int size = items.size();
+        Object[] results = new Object[size];
+        Throwable[] failures = new Throwable[size];
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(size);
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < size; i = next.getAndIncrement()) {
+                try {
+                    results[i] = function.apply(items.get(i));
+                } catch (Throwable e) {
+                    failures[i] = e;
+                } finally {
+                    completed.countDown();
+                }
+            }
+        };
+
+        boolean background = Caches.isBackgroundLoad();
+        GitHubRequestPriority priority = GitHubRateLimiter.currentPriority();
+        int helpers = Math.min(size, parallelism) - 1;
+        for (int i = 0; i < helpers; i++) {
+            try {
+                executor.execute(() -> runAs(threadName, () -> Caches.withBackgroundLoad(background,
+                        () -> GitHubRateLimiter.withPriority(priority, () -> {
+                            worker.run();
+                            return null;
+                        }))));
+            } catch (RejectedExecutionException e) {
+                // the shared threads are swamped so lets do the rest on the calling thread
+                break;
+            }
+        }
+        worker.run();
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + threadName, e);
+        }
+        for (Throwable failure : failures) {
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw failure instanceof RuntimeException ? (RuntimeException) failure : new IllegalStateException(failure);
+            }
+        }
+        for (Object result : results) {
+            answer.add((R) result);
+        }
+        return answer;
+    }
+
+    private static void runAs(String threadName, Runnable block) {
+        Thread thread = Thread.currentThread();
+        String oldName = thread.getName();
+        thread.setName(threadName + "-" + oldName);
+        try {
+            block.run();
+        } finally {
+            thread.setName(oldName);
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadPoolExecutor answer = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUE_SIZE), runnable -> {
+            Thread thread = new Thread(runnable, "parallel-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        answer.allowCoreThreadTimeOut(true);
+        return answer;
+    }
+}
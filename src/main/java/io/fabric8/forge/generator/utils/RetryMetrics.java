@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the retries of a {@link RetryPolicy}
+ */
+public class RetryMetrics implements RetryMetricsMBean {
+    private static final transient Logger LOG = LoggerFactory.getLogger(RetryMetrics.class);
+
+    public static final String OBJECT_NAME_PREFIX = "io.fabric8.forge.generator:type=Retries,name=";
+
+    private final RetryPolicy policy;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetRejected = new LongAdder();
+    private final LongAdder nonRetryable = new LongAdder();
+
+    public RetryMetrics(RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Creates the metrics for the policy registering them in JMX
+     */
+    public static RetryMetrics register(String name, RetryPolicy policy) {
+        RetryMetrics answer = new RetryMetrics(policy);
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(answer, objectName);
+        } catch (Exception e) {
+            LOG.debug("Failed to register the retry metrics MBean for " + name + ". " + e, e);
+        }
+        return answer;
+    }
+
+    public static void unregister(String name) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            LOG.debug("Failed to unregister the retry metrics MBean for " + name + ". " + e, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RetryMetrics{" +
+                "name='" + policy.getName() + '\'' +
+                ", calls=" + calls +
+                ", retries=" + retries +
+                ", recovered=" + recovered +
+                ", exhausted=" + exhausted +
+                ", budgetRejected=" + budgetRejected +
+                ", nonRetryable=" + nonRetryable +
+                '}';
+    }
+
+    public void recordCall() {
+        calls.increment();
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public void recordRecovered() {
+        recovered.increment();
+    }
+
+    public void recordExhausted() {
+        exhausted.increment();
+    }
+
+    public void recordBudgetRejected() {
+        budgetRejected.increment();
+    }
+
+    public void recordNonRetryable() {
+        nonRetryable.increment();
+    }
+
+    @Override
+    public String getName() {
+        return policy.getName();
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getRecovered() {
+        return recovered.sum();
+    }
+
+    @Override
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public long getBudgetRejected() {
+        return budgetRejected.sum();
+    }
+
+    @Override
+    public long getNonRetryable() {
+        return nonRetryable.sum();
+    }
+
+    @Override
+    public double getBudgetTokens() {
+        return policy.getBudgetTokens();
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        retries.reset();
+        recovered.reset();
+        exhausted.reset();
+        budgetRejected.reset();
+        nonRetryable.reset();
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.eclipse.jgit.api.errors.TransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.ProcessingException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Retries a remote call with exponential backoff and full jitter so that clients retrying against a struggling
+ * service do not synchronise with each other.
+ * <p>
+ * Each policy has a retry budget shared by all of its callers: every failed attempt uses up a token and every
+ * success earns back part of one; once fewer than half of the tokens remain failures are no longer retried so that
+ * an outage does not multiply the load on the service. Use {@link #forTarget(String)} to give each host its own
+ * budget so that one failing host does not stop retries against the others.
+ */
+public class RetryPolicy {
+    private static final transient Logger LOG = LoggerFactory.getLogger(RetryPolicy.class);
+
+    public static final int DEFAULT_BUDGET_TOKENS = 20;
+    public static final double DEFAULT_BUDGET_TOKEN_RATIO = 0.1;
+    public static final int MAX_TARGETS = 100;
+
+    private static final int TOKEN_SCALE = 1000;
+
+    private final String name;
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final Predicate<Throwable> retryable;
+    private final int maxTokens;
+    private final int tokenRatio;
+    private final AtomicInteger tokens;
+    private final RetryMetrics metrics;
+    private final Map<String, RetryPolicy> targets = new LinkedHashMap<String, RetryPolicy>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RetryPolicy> eldest) {
+            if (size() > MAX_TARGETS) {
+                RetryMetrics.unregister(eldest.getValue().getName());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public RetryPolicy(String name, int maxAttempts, long initialDelayMillis, long maxDelayMillis, Predicate<Throwable> retryable) {
+        this(name, maxAttempts, initialDelayMillis, maxDelayMillis, retryable, DEFAULT_BUDGET_TOKENS, DEFAULT_BUDGET_TOKEN_RATIO);
+    }
+
+    public RetryPolicy(String name, int maxAttempts, long initialDelayMillis, long maxDelayMillis, Predicate<Throwable> retryable,
+                       int budgetTokens, double budgetTokenRatio) {
+        this.name = name;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.retryable = retryable;
+        this.maxTokens = budgetTokens * TOKEN_SCALE;
+        this.tokenRatio = (int) (budgetTokenRatio * TOKEN_SCALE);
+        this.tokens = new AtomicInteger(maxTokens);
+        this.metrics = RetryMetrics.register(name, this);
+    }
+
+    /**
+     * Returns true if the failure is likely to be transient such as an I/O or transport failure or a server
+     * error from kubernetes; a missing resource or an interrupt is not retried
+     */
+    public static boolean isTransientFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FileNotFoundException) {
+                return false;
+            }
+            if (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException)) {
+                return false;
+            }
+            if (cause instanceof KubernetesClientException) {
+                int code = ((KubernetesClientException) cause).getCode();
+                return code <= 0 || code == 429 || code >= 500;
+            }
+            if (cause instanceof IOException || cause instanceof TransportException
+                    || cause instanceof org.eclipse.jgit.errors.TransportException || cause instanceof ProcessingException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the failure happened while connecting so that the request was never sent; only these
+     * failures are safe to retry for requests which are not idempotent
+     */
+    public static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the host of the given URL which may also be a git URL like <code>git@github.com:foo/bar.git</code>
+     */
+    public static String hostOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            String host = new URI(url).getHost();
+            if (host != null) {
+                return host;
+            }
+        } catch (URISyntaxException e) {
+            // lets try parse it as a git URL
+        }
+        String answer = url;
+        int idx = answer.indexOf('@');
+        if (idx >= 0) {
+            answer = answer.substring(idx + 1);
+        }
+        idx = answer.indexOf(':');
+        if (idx >= 0) {
+            answer = answer.substring(0, idx);
+        }
+        idx = answer.indexOf('/');
+        if (idx >= 0) {
+            answer = answer.substring(0, idx);
+        }
+        return answer;
+    }
+
+    /**
+     * Returns a policy with the same settings but its own retry budget for the given target such as a host
+     */
+    public RetryPolicy forTarget(String target) {
+        if (target == null || target.isEmpty()) {
+            return this;
+        }
+        synchronized (targets) {
+            return targets.computeIfAbsent(target, key -> new RetryPolicy(name + "/" + key, maxAttempts, initialDelayMillis,
+                    maxDelayMillis, retryable, maxTokens / TOKEN_SCALE, tokenRatio / (double) TOKEN_SCALE));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "name='" + name + '\'' +
+                ", maxAttempts=" + maxAttempts +
+                ", initialDelayMillis=" + initialDelayMillis +
+                ", maxDelayMillis=" + maxDelayMillis +
+                ", budgetTokens=" + getBudgetTokens() +
+                '}';
+    }
+
+    /**
+     * Invokes the attempt retrying any failures which are retryable
+     */
+    public <T, E extends Exception> T execute(Attempt<T, E> attempt) throws E {
+        return execute(attempt, result -> false);
+    }
+
+    /**
+     * Invokes the attempt retrying any failures which are retryable or any results which match the given predicate
+     */
+    public <T, E extends Exception> T execute(Attempt<T, E> attempt, Predicate<? super T> retryResult) throws E {
+        return execute(attempt, retryResult, result -> {
+        });
+    }
+
+    /**
+     * Invokes the attempt retrying any failures which are retryable or any results which match the given predicate,
+     * such as a server error response. A result which is retried is passed to the discard function so that it can
+     * be closed; once we run out of attempts the last result is returned.
+     */
+    public <T, E extends Exception> T execute(Attempt<T, E> attempt, Predicate<? super T> retryResult, Consumer<? super T> discard) throws E {
+        metrics.recordCall();
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            T answer;
+            try {
+                answer = attempt.call();
+            } catch (Exception e) {
+                if (!retryable.test(e)) {
+                    metrics.recordNonRetryable();
+                    throw RetryPolicy.<E>rethrow(e);
+                }
+                if (!canRetry(attemptNumber)) {
+                    throw RetryPolicy.<E>rethrow(e);
+                }
+                LOG.info("Retrying " + name + " attempt " + attemptNumber + " of " + maxAttempts + " failed. " + e);
+                if (!backoff(attemptNumber)) {
+                    throw RetryPolicy.<E>rethrow(e);
+                }
+                continue;
+            }
+            if (!retryResult.test(answer)) {
+                recordSuccess(attemptNumber);
+                return answer;
+            }
+            if (!canRetry(attemptNumber)) {
+                return answer;
+            }
+            LOG.info("Retrying " + name + " attempt " + attemptNumber + " of " + maxAttempts + " returned " + answer);
+            discard.accept(answer);
+            if (!backoff(attemptNumber)) {
+                throw new IllegalStateException("Interrupted while retrying " + name);
+            }
+        }
+    }
+
+    /**
+     * Uses up a token of the budget for the failed attempt and returns whether we should try again
+     */
+    protected boolean canRetry(int attemptNumber) {
+        int remaining = tokens.updateAndGet(value -> Math.max(0, value - TOKEN_SCALE));
+        if (attemptNumber >= maxAttempts) {
+            metrics.recordExhausted();
+            return false;
+        }
+        if (remaining <= maxTokens / 2) {
+            metrics.recordBudgetRejected();
+            LOG.warn("Not retrying " + name + " as the retry budget is used up");
+            return false;
+        }
+        metrics.recordRetry();
+        return true;
+    }
+
+    protected void recordSuccess(int attemptNumber) {
+        tokens.updateAndGet(value -> Math.min(maxTokens, value + tokenRatio));
+        if (attemptNumber > 1) {
+            metrics.recordRecovered();
+        }
+    }
+
+    /**
+     * Sleeps before the next attempt returning false if we were interrupted
+     */
+    protected boolean backoff(int attemptNumber) {
+        try {
+            sleep(backoffDelay(attemptNumber));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Returns a random delay between zero and the exponentially growing cap for the given attempt
+     */
+    protected long backoffDelay(int attemptNumber) {
+        long cap = initialDelayMillis;
+        for (int i = 1; i < attemptNumber && cap < maxDelayMillis; i++) {
+            cap *= 2;
+        }
+        cap = Math.min(cap, maxDelayMillis);
+        return cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0;
+    }
+
+    protected void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> E rethrow(Exception e) throws E {
+        throw (E) e;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public double getBudgetTokens() {
+        return tokens.get() / (double) TOKEN_SCALE;
+    }
+
+    public RetryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * A single attempt of a remote call
+     */
+    @FunctionalInterface
+    public interface Attempt<T, E extends Exception> {
+        T call() throws E;
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import io.fabric8.forge.generator.git.GitOrganisationDTO;
+import io.fabric8.forge.generator.git.GitRepositoryDTO;
+import io.fabric8.forge.generator.git.GitRepositoryListing;
+import io.fabric8.forge.generator.git.RepositoryAvailability;
+import org.infinispan.Cache;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Runs a couple of clustered {@link CacheFacade} instances in the same JVM over a loopback JGroups stack
+ */
+public class CacheFacadeClusterTest {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CacheFacadeClusterTest.class);
+
+    private final List<CacheFacade> facades = new ArrayList<>();
+
+    @After
+    public void tearDown() throws Exception {
+        for (CacheFacade facade : facades) {
+            facade.destroy();
+        }
+        facades.clear();
+    }
+
+    @Test
+    public void testReplicatedCachesShareEntries() throws Exception {
+        CacheFacade node1 = createFacade("replicated-test", CacheClusterMode.REPLICATED, "node1");
+        CacheFacade node2 = createFacade("replicated-test", CacheClusterMode.REPLICATED, "node2");
+
+        Cache<String, Collection<GitOrganisationDTO>> cache1 = node1.getCache(CacheNames.GITHUB_ORGANISATIONS);
+        Cache<String, Collection<GitOrganisationDTO>> cache2 = node2.getCache(CacheNames.GITHUB_ORGANISATIONS);
+        waitForMembers(cache1, 2);
+
+        List<GitOrganisationDTO> organisations = Arrays.asList(new GitOrganisationDTO("fabric8io", "fabric8"));
+        Caches.computeIfAbsent(cache1, "jstrachan", key -> organisations);
+
+        Collection<GitOrganisationDTO> actual = cache2.get("jstrachan");
+        LOG.debug("node2 has organisations " + actual);
+        assertNotNull("node2 should have the organisations loaded on node1", actual);
+        assertEquals(organisations, new ArrayList<>(actual));
+    }
+
+    @Test
+    public void testRepositoryCreatedUpdatesReplicatedListing() throws Exception {
+        CacheFacade node1 = createFacade("repository-created-test", CacheClusterMode.REPLICATED, "node1");
+        CacheFacade node2 = createFacade("repository-created-test", CacheClusterMode.REPLICATED, "node2");
+
+        Cache<String, Collection<GitRepositoryDTO>> cache1 = node1.getCache(CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION);
+        Cache<String, Collection<GitRepositoryDTO>> cache2 = node2.getCache(CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION);
+        waitForMembers(cache1, 2);
+
+        Caches.computeIfAbsent(cache1, "jstrachan/fabric8io",
+                key -> GitRepositoryListing.of(Arrays.asList(new GitRepositoryDTO("fabric8-generator"))));
+        new CacheInvalidator(node2).onEvent(CacheEvent.repositoryCreated(RepositoryAvailability.GITHUB, "jstrachan",
+                "fabric8io", new GitRepositoryDTO("fabric8-ui")));
+
+        List<String> names = new ArrayList<>();
+        for (GitRepositoryDTO repository : cache1.get("jstrachan/fabric8io")) {
+            names.add(repository.getName());
+        }
+        assertEquals(Arrays.asList("fabric8-generator", "fabric8-ui"), names);
+        assertEquals(cache1.get("jstrachan/fabric8io"), cache2.get("jstrachan/fabric8io"));
+    }
+
+    @Test
+    public void testAccountCachesAreNotReplicated() throws Exception {
+        CacheFacade node1 = createFacade("account-test", CacheClusterMode.REPLICATED, "node1");
+        CacheFacade node2 = createFacade("account-test", CacheClusterMode.REPLICATED, "node2");
+
+        Cache<String, String> cache1 = node1.getCache(CacheNames.GITHUB_ACCOUNT_FROM_SECRET);
+        Cache<String, String> cache2 = node2.getCache(CacheNames.GITHUB_ACCOUNT_FROM_SECRET);
+        waitForMembers(cache1, 2);
+
+        cache2.put("jstrachan", "old");
+        cache1.put("jstrachan", "new");
+
+        assertNull("node2 should have had its entry invalidated", cache2.get("jstrachan"));
+        assertEquals("new", cache1.get("jstrachan"));
+    }
+
+    @Test
+    public void testInvalidationMode() throws Exception {
+        CacheFacade node1 = createFacade("invalidation-test", CacheClusterMode.INVALIDATION, "node1");
+        CacheFacade node2 = createFacade("invalidation-test", CacheClusterMode.INVALIDATION, "node2");
+
+        Cache<String, String> cache1 = node1.getCache(CacheNames.USER_NAMESPACES);
+        Cache<String, String> cache2 = node2.getCache(CacheNames.USER_NAMESPACES);
+        waitForMembers(cache1, 2);
+
+        cache1.put("jstrachan", "v1");
+        cache2.put("jstrachan", "v2");
+
+        assertNull("node1 should have had its entry invalidated", cache1.get("jstrachan"));
+        assertEquals("v2", cache2.get("jstrachan"));
+    }
+
+    protected CacheFacade createFacade(String clusterName, CacheClusterMode mode, String nodeName) {
+        CacheOptions options = new CacheOptions();
+        options.setClusterMode(mode);
+        options.setClusterName(clusterName);
+        options.setNodeName(nodeName);
+        options.setJgroupsConfig("cache-test-jgroups.xml");
+        CacheFacade answer = new CacheFacade(options);
+        facades.add(answer);
+        return answer;
+    }
+
+    protected void waitForMembers(Cache<?, ?> cache, int expected) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (cache.getCacheManager().getMembers().size() >= expected) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        assertEquals("cluster members", expected, cache.getCacheManager().getMembers().size());
+    }
+}
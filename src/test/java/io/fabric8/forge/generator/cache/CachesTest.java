@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class CachesTest {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CachesTest.class);
+
+    private DefaultCacheManager manager;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultCacheManager();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        manager.stop();
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        String cacheName = "single-flight-test";
+        manager.defineConfiguration(cacheName, new ConfigurationBuilder().build());
+        Cache<String, String> cache = manager.getCache(cacheName);
+        CacheMetrics metrics = Caches.metrics(cacheName);
+
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(executor.submit(() -> Caches.computeIfAbsent(cache, "jstrachan", key -> {
+                loads.incrementAndGet();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "namespaces of " + key;
+            })));
+        }
+
+        // lets wait for all the other callers to join the in flight load before letting it complete
+        waitForCoalescedLoads(metrics, callers - 1);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            assertEquals("namespaces of jstrachan", future.get(10, TimeUnit.SECONDS));
+        }
+        LOG.debug("metrics " + metrics);
+        assertEquals("loads", 1, loads.get());
+        assertEquals("coalesced loads", callers - 1, metrics.getCoalescedLoads());
+        assertEquals("load count", 1, metrics.getLoadCount());
+    }
+
+    @Test
+    public void testLoadFailureIsSharedWithWaitingCallers() throws Exception {
+        String cacheName = "single-flight-failure-test";
+        manager.defineConfiguration(cacheName, new ConfigurationBuilder().build());
+        Cache<String, String> cache = manager.getCache(cacheName);
+        CacheMetrics metrics = Caches.metrics(cacheName);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> Caches.computeIfAbsent(cache, "jstrachan", key -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("tenant service is down");
+        }));
+        Future<String> second = executor.submit(() -> Caches.computeIfAbsent(cache, "jstrachan", key -> "not used"));
+
+        waitForCoalescedLoads(metrics, 1);
+        release.countDown();
+
+        assertFailsWith(first, "tenant service is down");
+        assertFailsWith(second, "tenant service is down");
+        assertEquals("load failures", 1, metrics.getLoadFailures());
+
+        // the failure is not cached so the next caller loads again
+        assertEquals("recovered", Caches.computeIfAbsent(cache, "jstrachan", key -> "recovered"));
+    }
+
+    @Test
+    public void testFailedOrEmptyRefreshKeepsTheEntry() throws Exception {
+        String cacheName = "refresh-failure-test";
+        manager.defineConfiguration(cacheName, new ConfigurationBuilder().expiration().lifespan(1, TimeUnit.HOURS).build());
+        Cache<String, List<String>> cache = manager.getCache(cacheName);
+        CacheMetrics metrics = Caches.metrics(cacheName);
+        Caches.refreshAfter(cacheName, 1, TimeUnit.MILLISECONDS);
+
+        List<String> namespaces = Arrays.asList("jstrachan", "jstrachan-jenkins");
+        cache.put("jstrachan", namespaces);
+        Thread.sleep(10);
+
+        refreshUntilFailures(cache, metrics, 1, key -> new ArrayList<>());
+        assertEquals("after an empty refresh", namespaces, cache.get("jstrachan"));
+
+        refreshUntilFailures(cache, metrics, 2, key -> {
+            throw new IllegalStateException("tenant service is down");
+        });
+        assertEquals("after a failed refresh", namespaces, cache.get("jstrachan"));
+        assertEquals("refreshes", 0, metrics.getRefreshes());
+    }
+
+    /**
+     * Keeps reading the stale entry, which triggers a background refresh whenever one is not already running, until
+     * the expected number of refreshes have failed
+     */
+    protected void refreshUntilFailures(Cache<String, List<String>> cache, CacheMetrics metrics, int expected,
+                                        Function<String, List<String>> loader) throws InterruptedException {
+        for (int i = 0; i < 100 && metrics.getRefreshFailures() < expected; i++) {
+            assertEquals(Arrays.asList("jstrachan", "jstrachan-jenkins"), Caches.computeIfAbsent(cache, "jstrachan", loader));
+            Thread.sleep(100);
+        }
+        assertEquals("refresh failures", expected, metrics.getRefreshFailures());
+    }
+
+    protected void assertFailsWith(Future<String> future, String message) throws InterruptedException {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Should have failed with " + message);
+        } catch (Exception e) {
+            // infinispan may wrap the exception thrown by the loader
+            Throwable cause = e.getCause();
+            while (cause.getCause() != null && !message.equals(cause.getMessage())) {
+                cause = cause.getCause();
+            }
+            assertEquals(message, cause.getMessage());
+        }
+    }
+
+    protected void waitForCoalescedLoads(CacheMetrics metrics, int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && metrics.getCoalescedLoads() < expected; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals("coalesced loads", expected, metrics.getCoalescedLoads());
+    }
+}
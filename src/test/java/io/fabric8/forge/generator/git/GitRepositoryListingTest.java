@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class GitRepositoryListingTest {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitRepositoryListingTest.class);
+
+    @Test
+    public void testListingMatchesTreeSet() throws Exception {
+        TreeSet<GitRepositoryDTO> expected = createRepositories(500);
+        GitRepositoryListing listing = GitRepositoryListing.of(expected);
+
+        assertEquals("size", expected.size(), listing.size());
+        int i = 0;
+        for (GitRepositoryDTO repository : expected) {
+            GitRepositoryDTO actual = listing.get(i++);
+            assertEquals("id", repository.getId(), actual.getId());
+            assertEquals("name", repository.getName(), actual.getName());
+            assertEquals("description", repository.getDescription(), actual.getDescription());
+        }
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(listing));
+    }
+
+    @Test
+    public void testListingsAreInterned() throws Exception {
+        GitRepositoryListing listing1 = GitRepositoryListing.of(createRepositories(100));
+        GitRepositoryListing listing2 = GitRepositoryListing.of(createRepositories(100));
+        assertSame("listings with the same content should be shared", listing1, listing2);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(listing1);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            assertSame("deserialized listings should be shared", listing1, in.readObject());
+        }
+    }
+
+    @Test
+    public void testEmptyAndNullFieldsArePreserved() throws Exception {
+        GitRepositoryDTO empty = new GitRepositoryDTO("empty-description", "");
+        empty.setName("");
+        GitRepositoryDTO missing = new GitRepositoryDTO("missing-description", null);
+        GitRepositoryListing listing = GitRepositoryListing.of(Arrays.asList(empty, missing));
+
+        assertEquals("", listing.getName(0));
+        assertEquals("", listing.getDescription(0));
+        assertEquals("missing-description", listing.getName(1));
+        assertNull(listing.getDescription(1));
+    }
+
+    @Test
+    public void testWithAddsRepositoryInOrder() throws Exception {
+        GitRepositoryListing listing = GitRepositoryListing.of(createRepositories(10));
+        GitRepositoryListing updated = listing.with(new GitRepositoryDTO("aaa-new-repo", "just created"));
+
+        assertEquals(listing.size() + 1, updated.size());
+        assertEquals("aaa-new-repo", updated.getId(0));
+        assertEquals("just created", updated.getDescription(0));
+    }
+
+    /**
+     * Compares the retained heap of the listing with the <code>TreeSet</code> we used to cache
+     */
+    @Test
+    public void testFootprint() throws Exception {
+        for (int count : new int[]{100, 1000, 5000}) {
+            TreeSet<GitRepositoryDTO> treeSet = createRepositories(count);
+            GitRepositoryListing listing = GitRepositoryListing.of(treeSet);
+
+            long treeSetSize = GraphLayout.parseInstance(treeSet).totalSize();
+            long listingSize = GraphLayout.parseInstance(listing).totalSize();
+            LOG.info("Footprint of " + count + " repositories: TreeSet " + treeSetSize + " bytes, listing " + listingSize
+                    + " bytes (" + (100 * listingSize / treeSetSize) + "%)");
+            assertTrue("The listing of " + count + " repositories should be less than half the size of the TreeSet but was "
+                    + listingSize + " vs " + treeSetSize, listingSize * 2 < treeSetSize);
+        }
+    }
+
+    protected TreeSet<GitRepositoryDTO> createRepositories(int count) {
+        List<GitRepositoryDTO> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(new GitRepositoryDTO("fabric8-repository-" + i, "created at " + (i % 28 + 1) + " May 2017"));
+        }
+        return new TreeSet<>(list);
+    }
+}
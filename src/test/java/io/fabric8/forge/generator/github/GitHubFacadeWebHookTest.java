@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.forge.generator.git.GitAccount;
+import io.fabric8.forge.generator.git.WebHookAction;
+import io.fabric8.forge.generator.git.WebHookDetails;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class GitHubFacadeWebHookTest {
+    private static final String WEBHOOK_URL = "https://jenkins.example.com/github-webhook/";
+    private static final String HOOK_UPDATED = "2017-10-01T12:00:00Z";
+
+    private HttpServer server;
+    private String hooks = "[]";
+    private List<String> patches = new ArrayList<>();
+    private GitHubFacade facade;
+    private GHRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/repos/fabric8io/demo", exchange -> {
+            try {
+                String path = exchange.getRequestURI().getPath();
+                if ("PATCH".equals(exchange.getRequestMethod())) {
+                    patches.add(path + " " + readBody(exchange));
+                    respond(exchange, "{}");
+                } else if (path.endsWith("/hooks")) {
+                    respond(exchange, hooks);
+                } else {
+                    respond(exchange, "{\"name\":\"demo\",\"full_name\":\"fabric8io/demo\",\"owner\":{\"login\":\"fabric8io\"}}");
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        GitHub github = new GitHubBuilder()
+                .withEndpoint("http://localhost:" + server.getAddress().getPort())
+                .withOAuthToken("my-token", "jstrachan")
+                .build();
+        facade = new GitHubFacade(new GitAccount("jstrachan", "my-token", null, null), github);
+        repository = github.getRepository("fabric8io/demo");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCreatesMissingWebHook() throws Exception {
+        assertEquals(WebHookAction.CREATED, facade.reconcileWebHook(repository, createWebHook("2017-09-01T12:00:00Z")));
+        assertEquals("patches", 0, patches.size());
+    }
+
+    @Test
+    public void testSkipsWebHookUpdatedAfterTheSecret() throws Exception {
+        hooks = createHooksJson(true);
+        assertEquals(WebHookAction.SKIPPED, facade.reconcileWebHook(repository, createWebHook("2017-09-01T12:00:00Z")));
+        assertEquals("patches", 0, patches.size());
+    }
+
+    @Test
+    public void testPatchesWebHookUpdatedBeforeTheSecret() throws Exception {
+        hooks = createHooksJson(true);
+        assertEquals(WebHookAction.UPDATED, facade.reconcileWebHook(repository, createWebHook("2017-11-01T12:00:00Z")));
+        assertEquals("patches", 1, patches.size());
+        String patch = patches.get(0);
+        assertTrue(patch, patch.startsWith("/repos/fabric8io/demo/hooks/1 "));
+        assertTrue(patch, patch.contains("\"secret\":\"my-secret\""));
+    }
+
+    @Test
+    public void testPatchesInactiveWebHook() throws Exception {
+        hooks = createHooksJson(false);
+        assertEquals(WebHookAction.UPDATED, facade.reconcileWebHook(repository, createWebHook("2017-09-01T12:00:00Z")));
+        assertEquals("patches", 1, patches.size());
+        String patch = patches.get(0);
+        assertTrue(patch, patch.contains("\"active\":true"));
+        assertTrue(patch, !patch.contains("\"config\""));
+    }
+
+    protected static WebHookDetails createWebHook(String secretUpdated) {
+        WebHookDetails answer = new WebHookDetails("fabric8io", "demo", WEBHOOK_URL, "my-secret");
+        answer.setSecretUpdated(Date.from(Instant.parse(secretUpdated)));
+        return answer;
+    }
+
+    protected static String createHooksJson(boolean active) {
+        return "[{\"id\":1,\"name\":\"web\",\"active\":" + active + ",\"events\":[\"*\"],"
+                + "\"config\":{\"url\":\"" + WEBHOOK_URL + "\",\"content_type\":\"json\",\"insecure_ssl\":\"1\",\"secret\":\"********\"},"
+                + "\"created_at\":\"" + HOOK_UPDATED + "\",\"updated_at\":\"" + HOOK_UPDATED + "\"}]";
+    }
+
+    protected static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            StringBuilder builder = new StringBuilder();
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                builder.append(new String(buffer, 0, count, StandardCharsets.UTF_8));
+            }
+            return builder.toString();
+        }
+    }
+
+    protected static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.forge.generator.cache.CacheMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class GitHubHttpCacheTest {
+    private static final String ETAG = "\"abc123\"";
+
+    private HttpServer server;
+    private File cacheDir;
+    private AtomicInteger fullResponses = new AtomicInteger();
+    private AtomicInteger notModifiedResponses = new AtomicInteger();
+    private AtomicInteger flakyRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDir = Files.createTempDirectory("github-http-cache").toFile();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/repos/fabric8io/fabric8-generator", exchange -> {
+            try {
+                exchange.getResponseHeaders().set("ETag", ETAG);
+                exchange.getResponseHeaders().set("Cache-Control", "private, max-age=60");
+                exchange.getResponseHeaders().set("Vary", "Accept, Authorization");
+                if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModifiedResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+                fullResponses.incrementAndGet();
+                byte[] body = ("{\"name\":\"fabric8-generator\",\"full_name\":\"fabric8io/fabric8-generator\","
+                        + "\"owner\":{\"login\":\"fabric8io\"}}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.createContext("/repos/fabric8io/flaky", exchange -> {
+            try {
+                if (flakyRequests.incrementAndGet() == 1) {
+                    exchange.sendResponseHeaders(502, -1);
+                    return;
+                }
+                byte[] body = "{\"name\":\"flaky\",\"full_name\":\"fabric8io/flaky\",\"owner\":{\"login\":\"fabric8io\"}}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRevalidatesWithETag() throws Exception {
+        GitHubHttpCache cache = new GitHubHttpCache(cacheDir, 1024 * 1024);
+        CacheMetrics metrics = cache.getMetrics();
+        metrics.reset();
+
+        GitHub github = new GitHubBuilder()
+                .withEndpoint("http://localhost:" + server.getAddress().getPort())
+                .withConnector(cache.createConnector())
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            GHRepository repository = github.getRepository("fabric8io/fabric8-generator");
+            assertEquals("fabric8-generator", repository.getName());
+        }
+
+        // the max-age from the server is ignored so every lookup is revalidated
+        assertEquals("full responses", 1, fullResponses.get());
+        assertEquals("304 responses", 2, notModifiedResponses.get());
+        assertEquals("hits", 2, metrics.getHits());
+        assertEquals("misses", 1, metrics.getMisses());
+    }
+
+    @Test
+    public void testRetriesServerErrors() throws Exception {
+        GitHubHttpCache cache = new GitHubHttpCache(cacheDir, 1024 * 1024);
+
+        GitHub github = new GitHubBuilder()
+                .withEndpoint("http://localhost:" + server.getAddress().getPort())
+                .withConnector(cache.createConnector())
+                .build();
+
+        GHRepository repository = github.getRepository("fabric8io/flaky");
+        assertEquals("flaky", repository.getName());
+        assertEquals("requests", 2, flakyRequests.get());
+    }
+
+    @Test
+    public void testDoesNotWriteTokensToDisk() throws Exception {
+        String token = "my-secret-token";
+        GitHubHttpCache cache = new GitHubHttpCache(cacheDir, 1024 * 1024);
+        CacheMetrics metrics = cache.getMetrics();
+        metrics.reset();
+
+        for (String user : new String[]{"user-a", "user-b", "user-a"}) {
+            GitHub github = new GitHubBuilder()
+                    .withEndpoint("http://localhost:" + server.getAddress().getPort())
+                    .withOAuthToken(token, "jstrachan")
+                    .withConnector(cache.createConnector(user))
+                    .build();
+            GHRepository repository = github.getRepository("fabric8io/fabric8-generator");
+            assertEquals("fabric8-generator", repository.getName());
+        }
+
+        // each user has its own cached response
+        assertEquals("full responses", 2, fullResponses.get());
+        assertEquals("304 responses", 1, notModifiedResponses.get());
+
+        File[] files = cacheDir.listFiles();
+        assertTrue("should have cached files", files != null && files.length > 0);
+        for (File file : files) {
+            String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+            assertFalse("token written to " + file, text.contains(token));
+        }
+    }
+
+    @Test
+    public void testCacheDirectoryIsPrivate() throws Exception {
+        File dir = new File(cacheDir, "nested/cache");
+        new GitHubHttpCache(dir, 1024 * 1024);
+        assertTrue("should have created " + dir, dir.isDirectory());
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir.toPath())));
+        }
+    }
+}
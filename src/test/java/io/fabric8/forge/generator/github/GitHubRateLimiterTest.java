@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class GitHubRateLimiterTest {
+    private final Request request = new Request.Builder().url("https://api.github.com/user/repos").build();
+
+    @Test
+    public void testBackgroundRequestsAreShedWhenOnlyTheReserveIsLeft() throws Exception {
+        GitHubRateLimiter limiter = new GitHubRateLimiter(10, 0);
+        GitHubRateLimit rateLimit = limiter.getRateLimit("token shed-test");
+        rateLimit.update(5000, 400, System.currentTimeMillis() / 1000 + 600);
+
+        limiter.acquire(rateLimit, GitHubRequestPriority.INTERACTIVE, request);
+        try {
+            limiter.acquire(rateLimit, GitHubRequestPriority.BACKGROUND, request);
+            fail("Should have shed the background request");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals("interactive", 1, rateLimit.getInteractiveRequests());
+        assertEquals("background", 1, rateLimit.getBackgroundRequests());
+        assertEquals("shed", 1, rateLimit.getBackgroundShed());
+    }
+
+    @Test
+    public void testBackgroundRequestsAreDelayedWhenTheBudgetIsLow() throws Exception {
+        GitHubRateLimiter limiter = new GitHubRateLimiter(10, 1);
+        GitHubRateLimit rateLimit = limiter.getRateLimit("token delay-test");
+        rateLimit.update(5000, 800, System.currentTimeMillis() / 1000 + 600);
+
+        limiter.acquire(rateLimit, GitHubRequestPriority.BACKGROUND, request);
+        assertEquals("delayed", 1, rateLimit.getBackgroundDelayed());
+
+        rateLimit.update(5000, 4000, System.currentTimeMillis() / 1000 + 3600);
+        limiter.acquire(rateLimit, GitHubRequestPriority.BACKGROUND, request);
+        assertEquals("delayed", 1, rateLimit.getBackgroundDelayed());
+        assertEquals("shed", 0, rateLimit.getBackgroundShed());
+    }
+
+    @Test
+    public void testBackgroundRequestsAreShedAfterRetryAfter() throws Exception {
+        GitHubRateLimiter limiter = new GitHubRateLimiter(10, 0);
+        GitHubRateLimit rateLimit = limiter.getRateLimit("token retry-after-test");
+        limiter.updateRateLimit(rateLimit, new Response.Builder().request(request).protocol(Protocol.HTTP_1_1)
+                .code(403).message("Forbidden").header("Retry-After", "60").build());
+        assertTrue("limited", rateLimit.isLimited(System.currentTimeMillis()));
+
+        limiter.acquire(rateLimit, GitHubRequestPriority.INTERACTIVE, request);
+        try {
+            limiter.acquire(rateLimit, GitHubRequestPriority.BACKGROUND, request);
+            fail("Should have shed the background request");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals("shed", 1, rateLimit.getBackgroundShed());
+    }
+
+    @Test
+    public void testRequestsAreInteractiveUnlessMarkedAsBackground() throws Exception {
+        assertEquals(GitHubRequestPriority.INTERACTIVE, GitHubRateLimiter.currentPriority());
+        assertEquals(GitHubRequestPriority.BACKGROUND, GitHubRateLimiter.withPriority(GitHubRequestPriority.BACKGROUND,
+                GitHubRateLimiter::currentPriority));
+    }
+}
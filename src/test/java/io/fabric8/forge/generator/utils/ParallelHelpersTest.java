@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import io.fabric8.forge.generator.cache.Caches;
+import io.fabric8.forge.generator.github.GitHubRateLimiter;
+import io.fabric8.forge.generator.github.GitHubRequestPriority;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class ParallelHelpersTest {
+
+    @Test
+    public void testResultsAreInTheOrderOfTheItems() throws Exception {
+        List<Integer> answer = ParallelHelpers.map("order-test", Arrays.asList(3, 1, 2), 3, i -> i * 10);
+        assertEquals(Arrays.asList(30, 10, 20), answer);
+    }
+
+    @Test
+    public void testNestedCallsCompleteWhenTheSharedThreadsAreBusy() throws Exception {
+        List<Integer> outer = new ArrayList<>();
+        for (int i = 0; i < ParallelHelpers.MAX_THREADS * 2; i++) {
+            outer.add(i);
+        }
+        List<Integer> answer = ParallelHelpers.map("outer-test", outer, ParallelHelpers.MAX_THREADS * 2,
+                i -> ParallelHelpers.map("inner-test", Arrays.asList(1, 2, 3), 3, j -> i * j).stream().mapToInt(Integer::intValue).sum());
+        for (int i = 0; i < outer.size(); i++) {
+            assertEquals(Integer.valueOf(i * 6), answer.get(i));
+        }
+    }
+
+    @Test
+    public void testFirstFailureIsThrown() throws Exception {
+        try {
+            ParallelHelpers.map("failure-test", Arrays.asList(1, 2, 3, 4), 4, i -> {
+                if (i >= 3) {
+                    throw new IllegalArgumentException("failed " + i);
+                }
+                return i;
+            });
+            fail("Should have failed");
+        } catch (IllegalArgumentException e) {
+            assertEquals("failed 3", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBackgroundLoadAndPriorityArePassedToTheThreads() throws Exception {
+        List<String> answer = Caches.withBackgroundLoad(true, () -> ParallelHelpers.map("context-test",
+                Arrays.asList("a", "b", "c"), 3, item -> item + " " + Caches.isBackgroundLoad() + " " + GitHubRateLimiter.currentPriority()));
+        assertEquals(Arrays.asList("a true BACKGROUND", "b true BACKGROUND", "c true BACKGROUND"), answer);
+
+        answer = GitHubRateLimiter.withPriority(GitHubRequestPriority.INTERACTIVE, () -> ParallelHelpers.map("context-test",
+                Arrays.asList("a", "b"), 2, item -> item + " " + Caches.isBackgroundLoad() + " " + GitHubRateLimiter.currentPriority()));
+        assertEquals(Arrays.asList("a false INTERACTIVE", "b false INTERACTIVE"), answer);
+    }
+}
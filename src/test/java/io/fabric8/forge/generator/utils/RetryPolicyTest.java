@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class RetryPolicyTest {
+
+    @Test
+    public void testTransientFailuresAreRetriedWithJitteredBackoff() throws Exception {
+        List<Long> delays = new ArrayList<>();
+        RetryPolicy policy = createPolicy("transient-test", 5, 100, 300, 20, delays);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String answer = policy.execute(() -> {
+            if (attempts.incrementAndGet() < 4) {
+                throw new IOException("Connection reset");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", answer);
+        assertEquals("attempts", 4, attempts.get());
+        assertEquals("delays " + delays, 3, delays.size());
+        long[] caps = {100, 200, 300};
+        for (int i = 0; i < caps.length; i++) {
+            long delay = delays.get(i);
+            assertTrue("delay " + delay + " should be within 0.." + caps[i], delay >= 0 && delay <= caps[i]);
+        }
+        assertEquals("retries", 3, policy.getMetrics().getRetries());
+        assertEquals("recovered", 1, policy.getMetrics().getRecovered());
+    }
+
+    @Test
+    public void testNonRetryableFailuresAreThrownImmediately() throws Exception {
+        RetryPolicy policy = createPolicy("non-retryable-test", 5, 100, 300, 20, new ArrayList<>());
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            policy.execute(() -> {
+                attempts.incrementAndGet();
+                throw new FileNotFoundException("https://api.github.com/repos/foo/bar");
+            });
+            fail("Should have thrown");
+        } catch (FileNotFoundException e) {
+            // expected
+        }
+        assertEquals("attempts", 1, attempts.get());
+        assertEquals("nonRetryable", 1, policy.getMetrics().getNonRetryable());
+    }
+
+    @Test
+    public void testResultsAreRetriedUntilTheAttemptsAreUsedUp() throws Exception {
+        RetryPolicy policy = createPolicy("result-test", 3, 10, 10, 20, new ArrayList<>());
+        AtomicInteger attempts = new AtomicInteger();
+        List<Integer> discarded = new ArrayList<>();
+
+        int status = policy.execute(() -> attempts.incrementAndGet() > 0 ? 503 : 200, result -> result == 503, discarded::add);
+
+        assertEquals(503, status);
+        assertEquals("attempts", 3, attempts.get());
+        assertEquals("discarded", 2, discarded.size());
+        assertEquals("exhausted", 1, policy.getMetrics().getExhausted());
+    }
+
+    @Test
+    public void testRetryBudgetStopsRetriesDuringAnOutage() throws Exception {
+        RetryPolicy policy = createPolicy("budget-test", 3, 10, 10, 4, new ArrayList<>());
+        AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            try {
+                policy.execute(() -> {
+                    attempts.incrementAndGet();
+                    throw new IOException("Service unavailable");
+                });
+                fail("Should have thrown");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        // the first call uses up half of the tokens after which failures are no longer retried
+        assertEquals("attempts", 4, attempts.get());
+        assertEquals("budgetRejected", 3, policy.getMetrics().getBudgetRejected());
+
+        // each success earns back a tenth of a token
+        for (int i = 0; i < 50; i++) {
+            policy.execute(() -> "ok");
+        }
+        assertEquals("budget tokens", 4.0, policy.getBudgetTokens(), 0.001);
+    }
+
+    @Test
+    public void testEachTargetHasItsOwnBudget() throws Exception {
+        RetryPolicy policy = createPolicy("target-test", 3, 0, 0, 4, new ArrayList<>());
+        RetryPolicy failing = policy.forTarget("jenkins-a");
+        for (int i = 0; i < 3; i++) {
+            try {
+                failing.execute(() -> {
+                    throw new IOException("Service unavailable");
+                });
+                fail("Should have thrown");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        assertTrue("target should be the same policy", failing == policy.forTarget("jenkins-a"));
+        assertEquals("failing budget tokens", 0.0, failing.getBudgetTokens(), 0.001);
+        assertEquals("other budget tokens", 4.0, policy.forTarget("jenkins-b").getBudgetTokens(), 0.001);
+        assertEquals("shared budget tokens", 4.0, policy.getBudgetTokens(), 0.001);
+    }
+
+    @Test
+    public void testHostOf() throws Exception {
+        assertEquals("jenkins.example.com", RetryPolicy.hostOf("https://jenkins.example.com/createItem?name=foo"));
+        assertEquals("github.com", RetryPolicy.hostOf("git@github.com:fabric8io/fabric8-generator.git"));
+        assertEquals("github.com", RetryPolicy.hostOf("ssh://git@github.com/fabric8io/fabric8-generator.git"));
+    }
+
+    @Test
+    public void testTransientFailureClassification() throws Exception {
+        assertTrue(RetryPolicy.isTransientFailure(new IOException("Connection refused")));
+        assertTrue(RetryPolicy.isTransientFailure(new RuntimeException(new java.net.SocketTimeoutException("Read timed out"))));
+        assertFalse(RetryPolicy.isTransientFailure(new FileNotFoundException("missing")));
+        assertFalse(RetryPolicy.isTransientFailure(new java.io.InterruptedIOException("interrupted")));
+        assertFalse(RetryPolicy.isTransientFailure(new IllegalArgumentException("bad request")));
+
+        assertTrue(RetryPolicy.isConnectFailure(new RuntimeException(new java.net.ConnectException("Connection refused"))));
+        assertFalse(RetryPolicy.isConnectFailure(new java.net.SocketTimeoutException("Read timed out")));
+    }
+
+    protected static RetryPolicy createPolicy(String name, int maxAttempts, long initialDelayMillis, long maxDelayMillis,
+                                              int budgetTokens, List<Long> delays) {
+        return new RetryPolicy(name, maxAttempts, initialDelayMillis, maxDelayMillis, RetryPolicy::isTransientFailure,
+                budgetTokens, RetryPolicy.DEFAULT_BUDGET_TOKEN_RATIO) {
+            @Override
+            protected void sleep(long millis) {
+                delays.add(millis);
+            }
+        };
+    }
+}